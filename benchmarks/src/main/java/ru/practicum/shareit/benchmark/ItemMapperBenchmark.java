@@ -0,0 +1,62 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaries;
+import ru.practicum.shareit.booking.summary.ItemBookingSummary;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cost of {@code ItemMapper.toFullItemDtoList} alone, on a page of seeded items with their booking summaries and comments
+ * loaded up front. Run with {@code java -jar benchmarks/target/benchmarks.jar ItemMapperBenchmark -p pageSize=1000}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemMapperBenchmark {
+
+    @Param({"20", "1000"})
+    public int pageSize;
+
+    private ItemMapper itemMapper;
+    private List<Item> items;
+    private Map<Long, ItemBookingSummary> itemBookingSummaries;
+    private Map<Long, List<Comment>> itemsCommentsMap;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededShareIt shareIt) {
+        itemMapper = shareIt.getBean(ItemMapper.class);
+        ItemRepository itemRepository = shareIt.getBean(ItemRepository.class);
+        ItemBookingSummaries bookingSummaries = shareIt.getBean(ItemBookingSummaries.class);
+        CommentRepository commentRepository = shareIt.getBean(CommentRepository.class);
+        shareIt.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            items = itemRepository.findAll(PageRequest.of(0, pageSize, Sort.by("id"))).getContent();
+            List<Long> itemIds = items.stream()
+                    .map(Item::getId)
+                    .collect(Collectors.toList());
+            itemBookingSummaries = bookingSummaries.getAll(itemIds);
+            itemsCommentsMap = commentRepository.findAllByItemIdIn(itemIds, Sort.by("created").descending()).stream()
+                    .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+        });
+    }
+
+    @Benchmark
+    public List<ItemDto> toFullItemDtoList() {
+        return itemMapper.toFullItemDtoList(items, itemBookingSummaries, itemsCommentsMap);
+    }
+}
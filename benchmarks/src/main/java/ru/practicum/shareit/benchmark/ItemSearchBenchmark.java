@@ -0,0 +1,75 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.ItemSearchMode;
+import ru.practicum.shareit.item.search.ItemSearchProperties;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@code ItemService.getSearcherItems} with the result cache disabled. Each call runs in a read-only
+ * transaction, as a web request runs in the session kept open by open-in-view.
+ * Run with {@code java -jar benchmarks/target/benchmarks.jar ItemSearchBenchmark -p itemCount=100000 -p mode=DATABASE}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemSearchBenchmark {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+    private static final Pageable DEEP_PAGE = PageRequest.of(10, 20);
+
+    @Param({"INDEX", "DATABASE"})
+    public ItemSearchMode mode;
+
+    private ItemService itemService;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededShareIt shareIt) {
+        shareIt.getBean(ItemSearchProperties.class).setMode(mode);
+        itemService = shareIt.getBean(ItemService.class);
+        transactionTemplate = new TransactionTemplate(shareIt.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @Benchmark
+    public List<ItemDto> singleTerm() {
+        return transactionTemplate.execute(status ->
+                itemService.getSearcherItems("drill", false, null, FIRST_PAGE));
+    }
+
+    @Benchmark
+    public List<ItemDto> singleTermDeepPage() {
+        return transactionTemplate.execute(status ->
+                itemService.getSearcherItems("drill", false, null, DEEP_PAGE));
+    }
+
+    @Benchmark
+    public List<ItemDto> partOfWord() {
+        return transactionTemplate.execute(status ->
+                itemService.getSearcherItems("amm", false, null, FIRST_PAGE));
+    }
+
+    @Benchmark
+    public List<ItemDto> phrase() {
+        return transactionTemplate.execute(status ->
+                itemService.getSearcherItems("cordless drill", false, null, FIRST_PAGE));
+    }
+
+    @Benchmark
+    public List<ItemDto> ranked() {
+        return transactionTemplate.execute(status ->
+                itemService.getSearcherItems("drill", true, null, FIRST_PAGE));
+    }
+}
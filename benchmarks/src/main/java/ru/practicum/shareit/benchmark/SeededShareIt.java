@@ -0,0 +1,111 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Server context on an in-memory H2 database seeded with {@code itemCount} items, a tenth of which
+ * have two approved bookings and a comment. The data is generated from a fixed seed, so runs are comparable.
+ */
+@State(Scope.Benchmark)
+public class SeededShareIt {
+
+    static final String[] WORDS = {
+        "drill", "saw", "hammer", "ladder", "tent", "bike", "kayak", "camera", "lens", "tripod",
+        "projector", "speaker", "guitar", "piano", "grill", "mixer", "blender", "vacuum", "mower", "trimmer",
+        "wrench", "sander", "jigsaw", "chisel", "clamp", "level", "heater", "fan", "cooler", "lamp",
+        "cordless", "electric", "manual", "compact", "heavy", "portable", "wooden", "steel", "new", "old"
+    };
+
+    private static final int OWNER_COUNT = 100;
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"10000"})
+    public int itemCount;
+
+    ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("ci")
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--shareit.search.cache.max-size=0",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--logging.level.org.springframework.transaction=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN");
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(ItemSearchIndex.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.getBean(JdbcTemplate.class).execute("SHUTDOWN");
+        context.close();
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= OWNER_COUNT; i++) {
+            users.add(new Object[]{i, "user" + i, "user" + i + "@shareit.ru"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO USERS (USER_ID, USER_NAME, USER_EMAIL) VALUES (?, ?, ?)", users);
+
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> items = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        for (int id = 1; id <= itemCount; id++) {
+            String name = word(random) + " " + word(random);
+            StringBuilder description = new StringBuilder(word(random));
+            for (int j = 0; j < 7; j++) {
+                description.append(' ').append(word(random));
+            }
+            items.add(new Object[]{id, name, description.toString(), random.nextInt(10) != 0, id % OWNER_COUNT + 1});
+            if (id % 10 == 0) {
+                long bookerId = (id + 1) % OWNER_COUNT + 1;
+                bookings.add(new Object[]{Timestamp.valueOf(now.minusDays(10)), Timestamp.valueOf(now.minusDays(9)),
+                        id, bookerId});
+                bookings.add(new Object[]{Timestamp.valueOf(now.plusDays(9)), Timestamp.valueOf(now.plusDays(10)),
+                        id, bookerId});
+                comments.add(new Object[]{"Nice " + name, id, bookerId, Timestamp.valueOf(now.minusDays(8))});
+            }
+            if (items.size() == BATCH_SIZE || id == itemCount) {
+                jdbcTemplate.batchUpdate("INSERT INTO ITEMS (ITEM_ID, ITEM_NAME, DESCRIPTION, AVAILABLE, USER_ID) " +
+                        "VALUES (?, ?, ?, ?, ?)", items);
+                jdbcTemplate.batchUpdate("INSERT INTO BOOKINGS (START_TIME, END_TIME, ITEM_ID, USER_ID, STATUS) " +
+                        "VALUES (?, ?, ?, ?, 'APPROVED')", bookings);
+                jdbcTemplate.batchUpdate("INSERT INTO COMMENTS (TEXT, ITEM_ID, USER_ID, CREATED_TIME) " +
+                        "VALUES (?, ?, ?, ?)", comments);
+                items.clear();
+                bookings.clear();
+                comments.clear();
+            }
+        }
+        jdbcTemplate.execute("ALTER TABLE ITEMS ALTER COLUMN ITEM_ID RESTART WITH " + (itemCount + 1));
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
@@ -3,16 +3,22 @@ package ru.practicum.shareit.booking;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -27,12 +33,13 @@ public class BookingController {
 			@RequestHeader("X-Sharer-User-Id") long userId,
 			@RequestParam(name = "state", defaultValue = "all") String stateParam,
 			@PositiveOrZero @RequestParam(name = "from", defaultValue = "0", required = false) Integer from,
-			@Positive @RequestParam(name = "size", defaultValue = "10", required = false) Integer size
+			@Positive @RequestParam(name = "size", defaultValue = "10", required = false) Integer size,
+			@RequestParam(name = "cursor", required = false) String cursor
 	) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-		log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-		return bookingClient.getBookingsByUser(userId, state, from, size);
+		log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size, cursor);
+		return bookingClient.getBookingsByUser(userId, state, from, size, cursor);
 	}
 
 	@GetMapping("/owner")
@@ -40,12 +47,33 @@ public class BookingController {
 			@RequestHeader("X-Sharer-User-Id") long userId,
 			@RequestParam(name = "state", defaultValue = "all") String stateParam,
 			@PositiveOrZero @RequestParam(name = "from", defaultValue = "0", required = false) Integer from,
-			@Positive @RequestParam(name = "size", defaultValue = "10", required = false) Integer size
+			@Positive @RequestParam(name = "size", defaultValue = "10", required = false) Integer size,
+			@RequestParam(name = "cursor", required = false) String cursor
 	) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-		log.info("Get booking by owner with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-		return bookingClient.getBookingsByOwner(userId, state, from, size);
+		log.info("Get booking by owner with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size, cursor);
+		return bookingClient.getBookingsByOwner(userId, state, from, size, cursor);
+	}
+
+	@GetMapping("/counts")
+	public ResponseEntity<Object> getBookingCountsByUser(@RequestHeader("X-Sharer-User-Id") long userId) {
+		log.info("Get booking counts, userId={}", userId);
+		return bookingClient.getBookingCountsByUser(userId);
+	}
+
+	@GetMapping("/owner/counts")
+	public ResponseEntity<Object> getBookingCountsByOwner(@RequestHeader("X-Sharer-User-Id") long userId) {
+		log.info("Get booking counts by owner, userId={}", userId);
+		return bookingClient.getBookingCountsByOwner(userId);
+	}
+
+	@GetMapping(path = "/owner/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamOwnerEvents(
+			@RequestHeader("X-Sharer-User-Id") long userId,
+			@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+		log.info("Stream booking events by owner, userId={}, Last-Event-ID={}", userId, lastEventId);
+		return bookingClient.streamOwnerEvents(userId, lastEventId);
 	}
 
 	@PostMapping
@@ -63,6 +91,13 @@ public class BookingController {
 		return bookingClient.updateBookItem(userId, bookingId,  approved);
 	}
 
+	@PatchMapping("/batch")
+	public ResponseEntity<Object> updateBookItems(@RequestHeader("X-Sharer-User-Id") long userId,
+			@RequestBody @NotEmpty @Size(max = 100) List<@Valid BookingApprovalDto> approvals) {
+		log.info("Updating statuses of {} bookings, userId={}", approvals.size(), userId);
+		return bookingClient.updateBookItems(userId, approvals);
+	}
+
 	@GetMapping("/{bookingId}")
 	public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
 			@PathVariable Long bookingId) {
@@ -1,5 +1,9 @@
 package ru.practicum.shareit.client;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
@@ -8,11 +12,18 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public class BaseClient {
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
     protected final RestTemplate rest;
 
     public BaseClient(RestTemplate rest) {
@@ -79,6 +90,68 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Requests an NDJSON body and pipes its bytes to the caller as they arrive, without parsing it.
+     */
+    protected ResponseEntity<StreamingResponseBody> stream(String path, Long userId, Map<String, Object> parameters) {
+        return stream(path, userId, parameters, MediaType.APPLICATION_NDJSON, new HttpHeaders());
+    }
+
+    /**
+     * Requests a server-sent event stream and pipes it to the caller, flushing every chunk as soon as it is read.
+     */
+    protected ResponseEntity<StreamingResponseBody> streamEvents(String path, long userId, @Nullable String lastEventId) {
+        HttpHeaders headers = new HttpHeaders();
+        if (lastEventId != null) {
+            headers.set(LAST_EVENT_ID_HEADER, lastEventId);
+        }
+        return stream(path, userId, Map.of(), MediaType.TEXT_EVENT_STREAM, headers);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String path, Long userId, Map<String, Object> parameters,
+                                                         MediaType accept, HttpHeaders headers) {
+        URI uri = rest.getUriTemplateHandler().expand(path, parameters);
+        boolean flushChunks = MediaType.TEXT_EVENT_STREAM.equals(accept);
+        ClientHttpResponse shareitServerResponse;
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            request.getHeaders().addAll(headers);
+            request.getHeaders().setAccept(List.of(accept));
+            if (userId != null) {
+                request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+            }
+            shareitServerResponse = request.execute();
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + e.getMessage(), e);
+        }
+        try {
+            return ResponseEntity.status(shareitServerResponse.getRawStatusCode())
+                    .headers(responseHeaders -> responseHeaders.setContentType(
+                            shareitServerResponse.getHeaders().getContentType()))
+                    .body(outputStream -> {
+                        try (shareitServerResponse) {
+                            if (flushChunks) {
+                                copyFlushing(shareitServerResponse.getBody(), outputStream);
+                            } else {
+                                StreamUtils.copy(shareitServerResponse.getBody(), outputStream);
+                            }
+                        }
+                    });
+        } catch (IOException e) {
+            shareitServerResponse.close();
+            throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + e.getMessage(), e);
+        }
+    }
+
+    private static void copyFlushing(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            out.flush();
+        }
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
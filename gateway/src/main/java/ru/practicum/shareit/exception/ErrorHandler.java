@@ -2,11 +2,12 @@ package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import javax.validation.ConstraintViolationException;
@@ -18,25 +19,22 @@ import java.util.Map;
 public class ErrorHandler {
 
     @ExceptionHandler
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorResponse handleIllegalArgumentException(final IllegalArgumentException e) {
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(final IllegalArgumentException e) {
         String message = e.getMessage();
         log.info(message);
-        return new ErrorResponse(message);
+        return error(HttpStatus.BAD_REQUEST, new ErrorResponse(message));
     }
 
     @ExceptionHandler
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorResponse handleMissingRequestHeaderException(final MissingRequestHeaderException e) {
+    public ResponseEntity<ErrorResponse> handleMissingRequestHeaderException(final MissingRequestHeaderException e) {
         String message = "Requested incorrect header";
         log.info(message);
-        return new ErrorResponse(message);
+        return error(HttpStatus.BAD_REQUEST, new ErrorResponse(message));
     }
 
 
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public Map<String, String> handleMethodArgumentNotValidException(
+    public ResponseEntity<Map<String, String>> handleMethodArgumentNotValidException(
             MethodArgumentNotValidException e) {
         Map<String, String> errors = new HashMap<>();
         e.getBindingResult().getAllErrors().forEach((error) -> {
@@ -45,12 +43,11 @@ public class ErrorHandler {
             errors.put(fieldName, errorMessage);
         });
         log.info(errors.toString());
-        return errors;
+        return error(HttpStatus.BAD_REQUEST, errors);
     }
 
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(ConstraintViolationException.class)
-    public Map<String, String> handleConstraintViolationException(
+    public ResponseEntity<Map<String, String>> handleConstraintViolationException(
             ConstraintViolationException e) {
         Map<String, String> errors = new HashMap<>();
         e.getConstraintViolations().forEach((error) -> {
@@ -59,14 +56,21 @@ public class ErrorHandler {
             errors.put(fieldName, errorMessage);
         });
         log.info(errors.toString());
-        return errors;
+        return error(HttpStatus.BAD_REQUEST, errors);
     }
 
     @ExceptionHandler
-    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
-    public ErrorResponse handleThrowable(final Throwable e) {
+    public ResponseEntity<ErrorResponse> handleThrowable(final Throwable e) {
         String errorMsg = "Unexpected error occurred";
         log.error(errorMsg, e);
-        return new ErrorResponse(e);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, new ErrorResponse(e));
+    }
+
+    /**
+     * Presets the JSON content type, so the body is written without content negotiation and an error of
+     * a streaming endpoint, which produces only NDJSON or server-sent events, keeps its status and body.
+     */
+    private static <T> ResponseEntity<T> error(HttpStatus status, T body) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
     }
 }
@@ -7,12 +7,17 @@ import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.item.dto.ItemRequestUpdateDto;
+import ru.practicum.shareit.item.dto.ItemSearchRequestDto;
 
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -29,7 +34,15 @@ public class ItemClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getAllByUser(long userId, int from, int size) {
+    public ResponseEntity<Object> getAllByUser(long userId, int from, int size, Long after) {
+        if (after != null) {
+            Map<String, Object> parameters = Map.of(
+                    "from", from,
+                    "size", size,
+                    "after", after
+            );
+            return get("?from={from}&size={size}&after={after}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -37,6 +50,19 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
+    public ResponseEntity<StreamingResponseBody> streamAllByUser(long userId, int from, int size, Long after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "from", from,
+                "size", size
+        ));
+        String path = "?from={from}&size={size}";
+        if (after != null) {
+            parameters.put("after", after);
+            path += "&after={after}";
+        }
+        return stream(path, userId, parameters);
+    }
+
     public ResponseEntity<Object> getItem(long itemId, long userId) {
         return get("/" + itemId, userId);
     }
@@ -53,13 +79,59 @@ public class ItemClient extends BaseClient {
         return delete("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> search(long userId, String text, int from, int size) {
+    public ResponseEntity<Object> search(long userId, String text, int from, int size, boolean ranked, Long after) {
+        if (after != null) {
+            Map<String, Object> parameters = Map.of(
+                    "text", text,
+                    "from", from,
+                    "size", size,
+                    "ranked", ranked,
+                    "after", after
+            );
+            return get("/search?text={text}&from={from}&size={size}&ranked={ranked}&after={after}",
+                    userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
+                "size", size,
+                "ranked", ranked
+        );
+        return get("/search?text={text}&from={from}&size={size}&ranked={ranked}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> searchBatch(long userId, List<ItemSearchRequestDto> requests) {
+        return post("/search/batch", userId, requests);
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamSearch(long userId, String text, int from, int size, Long after) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "text", text,
+                "from", from,
+                "size", size
+        ));
+        String path = "/search?text={text}&from={from}&size={size}";
+        if (after != null) {
+            parameters.put("after", after);
+            path += "&after={after}";
+        }
+        return stream(path, userId, parameters);
+    }
+
+    public ResponseEntity<Object> suggest(long userId, String prefix, int size) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return get("/suggest?prefix={prefix}&size={size}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getAvailability(long userId, long itemId, LocalDate from, LocalDate to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
     }
 
     public ResponseEntity<Object> createComment(long userId, long itemId, CommentRequestDto commentRequestDto) {
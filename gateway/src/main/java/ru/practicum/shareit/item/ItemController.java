@@ -2,17 +2,26 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestCreateDto;
 import ru.practicum.shareit.item.dto.ItemRequestUpdateDto;
+import ru.practicum.shareit.item.dto.ItemSearchRequestDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.time.LocalDate;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -26,9 +35,20 @@ public class ItemController {
     public ResponseEntity<Object> getAllByUser(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @PositiveOrZero @RequestParam(value = "from", defaultValue = "0", required = false) int from,
-            @Positive @RequestParam(value = "size", defaultValue = "10", required = false) int size) {
-        log.info("Get items by userId={}", userId);
-        return itemClient.getAllByUser(userId, from, size);
+            @Positive @RequestParam(value = "size", defaultValue = "10", required = false) int size,
+            @PositiveOrZero @RequestParam(value = "after", required = false) Long after) {
+        log.info("Get items by userId={}, after={}", userId, after);
+        return itemClient.getAllByUser(userId, from, size, after);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllByUser(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @PositiveOrZero @RequestParam(value = "from", defaultValue = "0", required = false) int from,
+            @Positive @RequestParam(value = "size", defaultValue = "10", required = false) int size,
+            @PositiveOrZero @RequestParam(value = "after", required = false) Long after) {
+        log.info("Stream items by userId={}, after={}", userId, after);
+        return itemClient.streamAllByUser(userId, from, size, after);
     }
 
     @GetMapping("/{itemId}")
@@ -65,9 +85,50 @@ public class ItemController {
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam String text,
             @PositiveOrZero @RequestParam(value = "from", defaultValue = "0", required = false) int from,
-            @Positive @RequestParam(value = "size", defaultValue = "10", required = false) int size) {
-        log.info("Searching text {}, userID={}, from={}, size={}", text, userId, from, size);
-        return itemClient.search(userId, text, from, size);
+            @Positive @RequestParam(value = "size", defaultValue = "10", required = false) int size,
+            @RequestParam(value = "ranked", defaultValue = "false", required = false) boolean ranked,
+            @PositiveOrZero @RequestParam(value = "after", required = false) Long after) {
+        log.info("Searching text {}, userID={}, from={}, size={}, ranked={}, after={}",
+                text, userId, from, size, ranked, after);
+        return itemClient.search(userId, text, from, size, ranked, after);
+    }
+
+    @PostMapping("/search/batch")
+    public ResponseEntity<Object> searchBatch(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestBody @NotEmpty @Size(max = 20) List<@Valid ItemSearchRequestDto> requests) {
+        log.info("Searching batch of {} queries, userID={}", requests.size(), userId);
+        return itemClient.searchBatch(userId, requests);
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearch(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam String text,
+            @PositiveOrZero @RequestParam(value = "from", defaultValue = "0", required = false) int from,
+            @Positive @RequestParam(value = "size", defaultValue = "10", required = false) int size,
+            @PositiveOrZero @RequestParam(value = "after", required = false) Long after) {
+        log.info("Streaming search of text {}, userID={}, from={}, size={}, after={}", text, userId, from, size, after);
+        return itemClient.streamSearch(userId, text, from, size, after);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggest(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam String prefix,
+            @Positive @Max(100) @RequestParam(value = "size", defaultValue = "10", required = false) int size) {
+        log.info("Suggesting names for prefix {}, userID={}, size={}", prefix, userId, size);
+        return itemClient.suggest(userId, prefix, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(
+            @PathVariable Long itemId,
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("Get availability of itemId={} from {} to {}, userId={}", itemId, from, to, userId);
+        return itemClient.getAvailability(userId, itemId, from, to);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ItemSearchRequestDto {
+    @NotNull
+    private String text;
+    @PositiveOrZero
+    @Builder.Default
+    private int from = 0;
+    @Positive
+    @Builder.Default
+    private int size = 10;
+    private boolean ranked;
+    @PositiveOrZero
+    private Long after;
+}
@@ -10,15 +10,19 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -107,7 +111,7 @@ class BookingControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        verify(bookingClient, never()).getBookingsByUser(anyLong(), any(BookingState.class), anyInt(), anyInt());
+        verify(bookingClient, never()).getBookingsByUser(anyLong(), any(BookingState.class), anyInt(), anyInt(), any());
     }
 
     @Test
@@ -124,7 +128,7 @@ class BookingControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        verify(bookingClient, never()).getBookingsByUser(anyLong(), any(BookingState.class), anyInt(), anyInt());
+        verify(bookingClient, never()).getBookingsByUser(anyLong(), any(BookingState.class), anyInt(), anyInt(), any());
     }
 
     @Test
@@ -141,7 +145,7 @@ class BookingControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        verify(bookingClient, never()).getBookingsByUser(anyLong(), any(BookingState.class), anyInt(), anyInt());
+        verify(bookingClient, never()).getBookingsByUser(anyLong(), any(BookingState.class), anyInt(), anyInt(), any());
     }
 
     @Test
@@ -158,7 +162,7 @@ class BookingControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        verify(bookingClient, never()).getBookingsByOwner(anyLong(), any(BookingState.class), anyInt(), anyInt());
+        verify(bookingClient, never()).getBookingsByOwner(anyLong(), any(BookingState.class), anyInt(), anyInt(), any());
     }
 
     @Test
@@ -175,7 +179,7 @@ class BookingControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        verify(bookingClient, never()).getBookingsByOwner(anyLong(), any(BookingState.class), anyInt(), anyInt());
+        verify(bookingClient, never()).getBookingsByOwner(anyLong(), any(BookingState.class), anyInt(), anyInt(), any());
     }
 
     @Test
@@ -192,9 +196,46 @@ class BookingControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        verify(bookingClient, never()).getBookingsByOwner(anyLong(), any(BookingState.class), anyInt(), anyInt());
+        verify(bookingClient, never()).getBookingsByOwner(anyLong(), any(BookingState.class), anyInt(), anyInt(), any());
     }
 
 
 
-}
\ No newline at end of file
+
+    @Test
+    void updateBatch_whenApprovalIsNotValid_thenStatusIsBadRequest() throws Exception {
+        mvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(mapper.writeValueAsString(List.of(new BookingApprovalDto(1L, null))))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).updateBookItems(anyLong(), anyList());
+    }
+
+    @Test
+    void updateBatch_whenListIsEmpty_thenStatusIsBadRequest() throws Exception {
+        mvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .content("[]")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).updateBookItems(anyLong(), anyList());
+    }
+
+    @Test
+    void streamOwnerEvents_whenLastEventIdGiven_thenStreamRequestedFromIt() throws Exception {
+        mvc.perform(get("/bookings/owner/stream")
+                        .header("X-Sharer-User-Id", 1)
+                        .header("Last-Event-ID", "5")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk());
+
+        verify(bookingClient).streamOwnerEvents(1L, "5");
+    }
+}
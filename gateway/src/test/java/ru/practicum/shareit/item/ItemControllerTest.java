@@ -11,8 +11,10 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.item.dto.ItemSearchRequestDto;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static java.lang.Boolean.TRUE;
 import static org.mockito.ArgumentMatchers.*;
@@ -20,6 +22,7 @@ import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemController.class)
@@ -58,7 +61,7 @@ class ItemControllerTest {
                         .param("size", "10"))
                 .andExpect(status().isBadRequest());
 
-        verify(itemClient, never()).getAllByUser(anyLong(), anyInt(), anyInt());
+        verify(itemClient, never()).getAllByUser(anyLong(), anyInt(), anyInt(), any());
     }
 
     @Test
@@ -69,7 +72,34 @@ class ItemControllerTest {
                         .param("size", "0"))
                 .andExpect(status().isBadRequest());
 
-        verify(itemClient, never()).getAllByUser(anyLong(), anyInt(), anyInt());
+        verify(itemClient, never()).getAllByUser(anyLong(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void streamAllByUser_whenNdjsonAccepted_thenStreamRequested() throws Exception {
+        mvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("from", "0")
+                        .param("size", "1000")
+                        .param("after", "10"))
+                .andExpect(status().isOk());
+
+        verify(itemClient).streamAllByUser(1L, 0, 1000, 10L);
+        verify(itemClient, never()).getAllByUser(anyLong(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void streamSearch_whenRequestParamSizeFalse_thenBadRequest() throws Exception {
+        mvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("text", "text")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+        verify(itemClient, never()).streamSearch(anyLong(), anyString(), anyInt(), anyInt(), any());
     }
 
     @Test
@@ -96,7 +126,7 @@ class ItemControllerTest {
                         .param("size", "10"))
                 .andExpect(status().isBadRequest());
 
-        verify(itemClient, never()).search(anyLong(), anyString(), anyInt(), anyInt());
+        verify(itemClient, never()).search(anyLong(), anyString(), anyInt(), anyInt(), anyBoolean(), any());
     }
 
     @Test
@@ -108,7 +138,79 @@ class ItemControllerTest {
                         .param("size", "0"))
                 .andExpect(status().isBadRequest());
 
-        verify(itemClient, never()).search(anyLong(), anyString(), anyInt(), anyInt());
+        verify(itemClient, never()).search(anyLong(), anyString(), anyInt(), anyInt(), anyBoolean(), any());
+    }
+
+    @Test
+    void search_whenRequestParamAfterFalse_thenBadRequest() throws Exception {
+        mvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("text", "text")
+                        .param("after", "-1")
+                        .param("size", "10"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).search(anyLong(), anyString(), anyInt(), anyInt(), anyBoolean(), any());
+    }
+
+    @Test
+    void searchBatch_whenQueryNotValid_thenBadRequest() throws Exception {
+        mvc.perform(post("/items/search/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(mapper.writeValueAsString(List.of(
+                                ItemSearchRequestDto.builder().text("text").size(0).build())))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).searchBatch(anyLong(), anyList());
+    }
+
+    @Test
+    void searchBatch_whenNoQueries_thenBadRequest() throws Exception {
+        mvc.perform(post("/items/search/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .content("[]")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).searchBatch(anyLong(), anyList());
+    }
+
+    @Test
+    void searchBatch_whenQueriesValid_thenSentInOneRequest() throws Exception {
+        List<ItemSearchRequestDto> requests = List.of(
+                ItemSearchRequestDto.builder().text("text").build(),
+                ItemSearchRequestDto.builder().text("other").after(5L).build());
+
+        mvc.perform(post("/items/search/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(mapper.writeValueAsString(requests))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(itemClient).searchBatch(1L, requests);
+    }
+
+    @Test
+    void suggest_whenRequestSizeFalse_thenBadRequest() throws Exception {
+        mvc.perform(get("/items/suggest")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("prefix", "дре")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).suggest(anyLong(), anyString(), anyInt());
+    }
+
+    @Test
+    void suggest_whenRequestSizeTooLarge_thenBadRequest() throws Exception {
+        mvc.perform(get("/items/suggest")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("prefix", "дре")
+                        .param("size", "101"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).suggest(anyLong(), anyString(), anyInt());
     }
 
     @Test
@@ -0,0 +1,187 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.ServiceUnavailableException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Group commit of new bookings: requests put their bookings into a bounded queue, and a single writer thread
+ * inserts everything queued so far with one JDBC batch in one transaction. Enabled by
+ * {@code shareit.booking.group-commit.enabled}.
+ */
+@Slf4j
+@Component
+public class BookingBatchWriter {
+
+    private static final String INSERT_QUERY = "INSERT INTO BOOKINGS " +
+            "(START_TIME, END_TIME, ITEM_ID, USER_ID, STATUS, VERSION) VALUES (?, ?, ?, ?, ?, 0)";
+
+    private final BookingProperties.GroupCommit properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingBooking> queue;
+    private Thread writer;
+
+    @Autowired
+    public BookingBatchWriter(BookingProperties properties,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager) {
+        this.properties = properties.getGroupCommit();
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(this.properties.getQueueCapacity());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        writer = new Thread(this::drain, "booking-batch-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        writer.interrupt();
+        writer.join();
+        List<PendingBooking> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        rest.forEach(pending -> pending.future.completeExceptionally(
+                new ServiceUnavailableException("Booking writer is stopped")));
+    }
+
+    /**
+     * Queues the booking for insertion. The returned future completes with the booking once it has an id.
+     *
+     * @param inTransaction called with the inserted booking in the transaction that inserts it
+     * @throws ServiceUnavailableException if the queue stays full for the offer timeout
+     */
+    public CompletableFuture<Booking> submit(Booking booking, Consumer<Booking> inTransaction) {
+        PendingBooking pending = new PendingBooking(booking, inTransaction);
+        try {
+            if (queue.offer(pending, properties.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                return pending.future;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new ServiceUnavailableException("Too many bookings are being created, retry the request");
+    }
+
+    private void drain() {
+        List<PendingBooking> batch = new ArrayList<>(properties.getMaxBatchSize());
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            queue.drainTo(batch, properties.getMaxBatchSize() - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Inserts the batch in one transaction. If it fails, the bookings are inserted one by one, so a single
+     * invalid booking only fails its own request.
+     */
+    void write(List<PendingBooking> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            log.warn("Batch of {} bookings failed, inserting them one by one", batch.size(), e);
+            batch.forEach(pending -> write(List.of(pending)));
+            return;
+        }
+        batch.forEach(pending -> pending.future.complete(pending.booking));
+        log.debug("Inserted a batch of {} bookings", batch.size());
+    }
+
+    private void insert(List<PendingBooking> batch) {
+        List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement =
+                         connection.prepareStatement(INSERT_QUERY, Statement.RETURN_GENERATED_KEYS)) {
+                for (PendingBooking pending : batch) {
+                    Booking booking = pending.booking;
+                    statement.setTimestamp(1, Timestamp.valueOf(booking.getStartTime()));
+                    statement.setTimestamp(2, Timestamp.valueOf(booking.getEndTime()));
+                    statement.setLong(3, booking.getItem().getId());
+                    statement.setLong(4, booking.getBooker().getId());
+                    statement.setString(5, booking.getStatus().name());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Long> keys = new ArrayList<>(batch.size());
+                try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                    while (generatedKeys.next()) {
+                        keys.add(generatedKeys.getLong("BOOKING_ID"));
+                    }
+                }
+                if (keys.size() != batch.size()) {
+                    throw new IncorrectResultSizeDataAccessException(batch.size(), keys.size());
+                }
+                return keys;
+            }
+        });
+        for (int i = 0; i < batch.size(); i++) {
+            Booking booking = batch.get(i).booking;
+            booking.setId(ids.get(i));
+            booking.setVersion(0L);
+            batch.get(i).inTransaction.accept(booking);
+        }
+    }
+
+    static class PendingBooking {
+
+        private final Booking booking;
+        private final Consumer<Booking> inTransaction;
+        private final CompletableFuture<Booking> future = new CompletableFuture<>();
+
+        PendingBooking(Booking booking, Consumer<Booking> inTransaction) {
+            this.booking = booking;
+            this.inTransaction = inTransaction;
+        }
+
+        CompletableFuture<Booking> getFuture() {
+            return future;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.booking;
+
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of per-state booking counts with a time to live. The counts of a booking's booker and
+ * item owner are dropped when the booking is created or its status changes.
+ */
+@Component
+public class BookingCountsCache {
+
+    private final BookingProperties.CountsCache properties;
+    private final LinkedHashMap<Key, Entry> entries;
+    private long evictions;
+
+    @Autowired
+    public BookingCountsCache(BookingProperties bookingProperties) {
+        this.properties = bookingProperties.getCountsCache();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > properties.getMaxSize();
+            }
+        };
+    }
+
+    /**
+     * Returns the cached counts or loads them. Counts loaded while an eviction happened aren't cached,
+     * as they may miss the change that caused it.
+     */
+    public BookingCountsDto get(long userId, BookingRole role, Supplier<BookingCountsDto> loader) {
+        Key key = new Key(userId, role);
+        long evictionsBefore;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                return entry.counts;
+            }
+            evictionsBefore = evictions;
+        }
+        BookingCountsDto counts = loader.get();
+        synchronized (this) {
+            if (evictions == evictionsBefore && properties.getMaxSize() > 0) {
+                entries.put(key, new Entry(counts, System.nanoTime() + properties.getTtl().toNanos()));
+            }
+        }
+        return counts;
+    }
+
+    public synchronized void evict(Booking booking) {
+        evictions++;
+        entries.remove(new Key(booking.getBooker().getId(), BookingRole.BOOKER));
+        entries.remove(new Key(booking.getItem().getOwner().getId(), BookingRole.OWNER));
+    }
+
+    @EqualsAndHashCode
+    private static class Key {
+
+        private final long userId;
+        private final BookingRole role;
+
+        Key(long userId, BookingRole role) {
+            this.userId = userId;
+            this.role = role;
+        }
+    }
+
+    private static class Entry {
+
+        private final BookingCountsDto counts;
+        private final long expiresAt;
+
+        Entry(BookingCountsDto counts, long expiresAt) {
+            this.counts = counts;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ru.practicum.shareit.booking;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.booking")
+public class BookingProperties {
+
+    private final CountsCache countsCache = new CountsCache();
+
+    private final Archive archive = new Archive();
+
+    private final GroupCommit groupCommit = new GroupCommit();
+
+    private final Availability availability = new Availability();
+
+    private final Calendar calendar = new Calendar();
+
+    @Getter
+    @Setter
+    public static class CountsCache {
+
+        /**
+         * How many (user, role) counts are kept; the least recently used one is evicted first.
+         */
+        private int maxSize = 10000;
+
+        /**
+         * How long counts are served from the cache at most. It also bounds how late the CURRENT, FUTURE
+         * and PAST counts follow bookings starting and ending.
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Archive {
+
+        /**
+         * How long after their end bookings are moved to BOOKINGS_ARCHIVE.
+         */
+        private Duration horizon = Duration.ofDays(180);
+
+        /**
+         * How many bookings are moved in one transaction.
+         */
+        private int batchSize = 1000;
+
+        /**
+         * Whether BOOKINGS_ARCHIVE is partitioned by month of END_TIME, so the archiver creates the partitions
+         * of the months it moves bookings of.
+         */
+        private boolean monthlyPartitions = true;
+    }
+
+    @Getter
+    @Setter
+    public static class GroupCommit {
+
+        /**
+         * Whether new bookings are queued and inserted in JDBC batches by a single writer thread instead of
+         * one transaction per request.
+         */
+        private boolean enabled = false;
+
+        private int queueCapacity = 1000;
+
+        private int maxBatchSize = 100;
+
+        /**
+         * How long a request waits for room in a full queue before it is rejected with 503.
+         */
+        private Duration offerTimeout = Duration.ofMillis(500);
+    }
+
+    @Getter
+    @Setter
+    public static class Availability {
+
+        /**
+         * How long the booking periods of an item stay in memory after the item was last booked.
+         */
+        private Duration idleTimeout = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Calendar {
+
+        /**
+         * How many item calendars are kept; the least recently requested one is dropped first.
+         */
+        private int maxSize = 10000;
+    }
+}
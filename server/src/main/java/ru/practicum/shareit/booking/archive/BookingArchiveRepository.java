@@ -0,0 +1,76 @@
+package ru.practicum.shareit.booking.archive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class BookingArchiveRepository {
+
+    /**
+     * Finds bookings ended before the cutoff, except for the last started approved booking of each item:
+     * item listings show it as the last booking, and they read BOOKINGS only.
+     */
+    private static final String FIND_FINISHED_QUERY = "SELECT b.BOOKING_ID FROM BOOKINGS AS b " +
+            "WHERE b.END_TIME < :cutoff AND (b.STATUS <> :approved OR EXISTS (" +
+            "SELECT 1 FROM BOOKINGS AS l WHERE l.ITEM_ID = b.ITEM_ID AND l.STATUS = :approved " +
+            "AND l.START_TIME < :now AND (l.START_TIME > b.START_TIME " +
+            "OR l.START_TIME = b.START_TIME AND l.BOOKING_ID > b.BOOKING_ID))) " +
+            "ORDER BY b.END_TIME LIMIT :limit";
+
+    private static final String FIND_MONTHS_QUERY = "SELECT DISTINCT " +
+            "EXTRACT(YEAR FROM END_TIME) * 100 + EXTRACT(MONTH FROM END_TIME) " +
+            "FROM BOOKINGS WHERE BOOKING_ID IN (:ids)";
+
+    private static final String CREATE_PARTITION_QUERY = "CREATE TABLE IF NOT EXISTS BOOKINGS_ARCHIVE_%s " +
+            "PARTITION OF BOOKINGS_ARCHIVE FOR VALUES FROM ('%s') TO ('%s')";
+
+    private static final String COPY_QUERY = "INSERT INTO BOOKINGS_ARCHIVE " +
+            "(BOOKING_ID, START_TIME, END_TIME, ITEM_ID, USER_ID, STATUS) " +
+            "SELECT BOOKING_ID, START_TIME, END_TIME, ITEM_ID, USER_ID, STATUS FROM BOOKINGS " +
+            "WHERE BOOKING_ID IN (:ids)";
+
+    private static final String DELETE_QUERY = "DELETE FROM BOOKINGS WHERE BOOKING_ID IN (:ids)";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public BookingArchiveRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Long> findAllFinishedIds(LocalDateTime cutoff, LocalDateTime now, int limit) {
+        return jdbcTemplate.queryForList(FIND_FINISHED_QUERY, Map.of(
+                        "cutoff", cutoff,
+                        "now", now,
+                        "approved", BookingStatus.APPROVED.name(),
+                        "limit", limit),
+                Long.class);
+    }
+
+    /**
+     * Creates the missing monthly partitions of BOOKINGS_ARCHIVE for the end times of the bookings.
+     */
+    public void createPartitions(Collection<Long> ids) {
+        jdbcTemplate.queryForList(FIND_MONTHS_QUERY, Map.of("ids", ids), Integer.class).forEach(month -> {
+            YearMonth yearMonth = YearMonth.of(month / 100, month % 100);
+            jdbcTemplate.getJdbcTemplate().execute(String.format(CREATE_PARTITION_QUERY,
+                    yearMonth.format(PARTITION_SUFFIX), yearMonth.atDay(1), yearMonth.plusMonths(1).atDay(1)));
+        });
+    }
+
+    public int move(Collection<Long> ids) {
+        jdbcTemplate.update(COPY_QUERY, Map.of("ids", ids));
+        return jdbcTemplate.update(DELETE_QUERY, Map.of("ids", ids));
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingProperties;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves bookings that ended longer than the horizon ago from BOOKINGS to BOOKINGS_ARCHIVE, so the queries
+ * of current and future bookings only touch recent rows. Booking lists and counts read both tables.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+
+    private final BookingArchiveRepository archiveRepository;
+    private final BookingProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public BookingArchiver(BookingArchiveRepository archiveRepository,
+                           BookingProperties properties,
+                           PlatformTransactionManager transactionManager) {
+        this.archiveRepository = archiveRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.archive.interval:PT1H}",
+            initialDelayString = "${shareit.booking.archive.interval:PT1H}")
+    public void archive() {
+        BookingProperties.Archive archive = properties.getArchive();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(archive.getHorizon());
+        int archived = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> {
+                List<Long> ids = archiveRepository.findAllFinishedIds(cutoff, now, archive.getBatchSize());
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                if (archive.isMonthlyPartitions()) {
+                    archiveRepository.createPartitions(ids);
+                }
+                return archiveRepository.move(ids);
+            });
+            archived += moved;
+        } while (moved == archive.getBatchSize());
+        if (archived > 0) {
+            log.info("Archived {} bookings ended before {}", archived, cutoff);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingProperties;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps the waiting and approved booking periods of every item in an interval tree, loaded from
+ * the database the first time the item is booked, so a new booking is checked for overlaps in memory.
+ * Ended periods are dropped when the item is booked again, and items not booked for a while are dropped
+ * as a whole.
+ */
+@Component
+public class BookingAvailability {
+
+    private static final List<BookingStatus> BLOCKING_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final BookingProperties.Availability properties;
+    private final ConcurrentMap<Long, ItemPeriods> periods = new ConcurrentHashMap<>();
+    private final AtomicLong placeholderIds = new AtomicLong();
+
+    @Autowired
+    public BookingAvailability(BookingRepository bookingRepository, BookingProperties bookingProperties) {
+        this.bookingRepository = bookingRepository;
+        this.properties = bookingProperties.getAvailability();
+    }
+
+    /**
+     * Saves the booking unless its period overlaps a waiting or approved booking of the same item.
+     */
+    public Booking reserve(Booking booking, UnaryOperator<Booking> save) {
+        Long itemId = booking.getItem().getId();
+        while (true) {
+            ItemPeriods itemPeriods = get(itemId);
+            synchronized (itemPeriods) {
+                if (itemPeriods.dropped) {
+                    continue;
+                }
+                BookingIntervalTree tree = itemPeriods.load(itemId);
+                checkFree(tree, booking);
+                Booking savedBooking = save.apply(booking);
+                tree.add(savedBooking.getId(), savedBooking.getStartTime(), savedBooking.getEndTime());
+                return savedBooking;
+            }
+        }
+    }
+
+    /**
+     * Like {@link #reserve(Booking, UnaryOperator)}, but holds the period with a placeholder while the booking
+     * is saved asynchronously, so the item's next bookings are checked without waiting for the save.
+     */
+    public CompletableFuture<Booking> reserveAsync(Booking booking,
+                                                   Function<Booking, CompletableFuture<Booking>> save) {
+        Long itemId = booking.getItem().getId();
+        long placeholderId = placeholderIds.decrementAndGet();
+        ItemPeriods itemPeriods;
+        while (true) {
+            itemPeriods = get(itemId);
+            synchronized (itemPeriods) {
+                if (itemPeriods.dropped) {
+                    continue;
+                }
+                BookingIntervalTree tree = itemPeriods.load(itemId);
+                checkFree(tree, booking);
+                tree.add(placeholderId, booking.getStartTime(), booking.getEndTime());
+                itemPeriods.pendingSaves++;
+                break;
+            }
+        }
+        ItemPeriods reserved = itemPeriods;
+        CompletableFuture<Booking> saved;
+        try {
+            saved = save.apply(booking);
+        } catch (RuntimeException e) {
+            synchronized (reserved) {
+                reserved.pendingSaves--;
+                reserved.tree.remove(placeholderId, booking.getStartTime());
+            }
+            throw e;
+        }
+        return saved.whenComplete((savedBooking, e) -> {
+            synchronized (reserved) {
+                reserved.pendingSaves--;
+                reserved.tree.remove(placeholderId, booking.getStartTime());
+                if (savedBooking != null) {
+                    reserved.tree.add(savedBooking.getId(), savedBooking.getStartTime(), savedBooking.getEndTime());
+                }
+            }
+        });
+    }
+
+    /**
+     * Frees the booking's period once its status no longer blocks the item.
+     */
+    public void statusChanged(Booking booking) {
+        if (BLOCKING_STATUSES.contains(booking.getStatus())) {
+            return;
+        }
+        ItemPeriods itemPeriods = periods.get(booking.getItem().getId());
+        if (itemPeriods != null) {
+            synchronized (itemPeriods) {
+                if (itemPeriods.tree != null) {
+                    itemPeriods.tree.remove(booking.getId(), booking.getStartTime());
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the trees of the items whose bookings were deleted, so they are reloaded on the next booking.
+     */
+    public void evict(Collection<Long> itemIds) {
+        itemIds.forEach(itemId -> {
+            ItemPeriods itemPeriods = periods.remove(itemId);
+            if (itemPeriods != null) {
+                synchronized (itemPeriods) {
+                    itemPeriods.dropped = true;
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops the trees of the items not booked for longer than the idle timeout, unless a booking of the item
+     * is still being saved.
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking.availability.sweep-interval:PT1M}")
+    public void dropIdle() {
+        long accessedBefore = System.nanoTime() - properties.getIdleTimeout().toNanos();
+        periods.forEach((itemId, itemPeriods) -> {
+            synchronized (itemPeriods) {
+                if (itemPeriods.accessedAt - accessedBefore <= 0 && itemPeriods.pendingSaves == 0) {
+                    itemPeriods.dropped = true;
+                    periods.remove(itemId, itemPeriods);
+                }
+            }
+        });
+    }
+
+    /**
+     * Only registers the item; its tree is loaded under the item's own lock, so a slow load holds up
+     * neither other items nor a status change, which waits for the load and then applies to the loaded tree.
+     */
+    private ItemPeriods get(Long itemId) {
+        ItemPeriods itemPeriods = periods.get(itemId);
+        if (itemPeriods == null) {
+            ItemPeriods added = new ItemPeriods();
+            itemPeriods = periods.putIfAbsent(itemId, added);
+            if (itemPeriods == null) {
+                itemPeriods = added;
+            }
+        }
+        itemPeriods.accessedAt = System.nanoTime();
+        return itemPeriods;
+    }
+
+    private void checkFree(BookingIntervalTree tree, Booking booking) {
+        tree.removeEndedBefore(LocalDateTime.now());
+        if (tree.overlaps(booking.getStartTime(), booking.getEndTime())) {
+            throw new ConflictException(String.format(
+                    "Item id=%d is already booked from %s to %s",
+                    booking.getItem().getId(), booking.getStartTime(), booking.getEndTime()));
+        }
+    }
+
+    private class ItemPeriods {
+
+        private BookingIntervalTree tree;
+        private volatile long accessedAt;
+        private int pendingSaves;
+        private boolean dropped;
+
+        BookingIntervalTree load(Long itemId) {
+            if (tree == null) {
+                BookingIntervalTree loaded = new BookingIntervalTree();
+                bookingRepository.findAllByItemIdAndStatusInAndEndTimeAfter(itemId, BLOCKING_STATUSES,
+                                LocalDateTime.now())
+                        .forEach(booking -> loaded.add(booking.getId(), booking.getStartTime(), booking.getEndTime()));
+                tree = loaded;
+            }
+            return tree;
+        }
+    }
+}
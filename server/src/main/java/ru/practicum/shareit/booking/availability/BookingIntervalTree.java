@@ -0,0 +1,202 @@
+package ru.practicum.shareit.booking.availability;
+
+import java.time.LocalDateTime;
+
+/**
+ * AVL tree of half-open booking periods {@code [start, end)} ordered by start and booking id.
+ * Every node keeps the latest end of its subtree, so an overlap is found along a single path, and the earliest
+ * one, so ended periods are found without visiting the others.
+ */
+class BookingIntervalTree {
+
+    private Node root;
+    private int size;
+
+    boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        Node node = root;
+        while (node != null) {
+            if (node.start.isBefore(end) && start.isBefore(node.end)) {
+                return true;
+            }
+            if (node.left != null && start.isBefore(node.left.maxEnd)) {
+                node = node.left;
+            } else if (node.start.isBefore(end)) {
+                node = node.right;
+            } else {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    void add(long bookingId, LocalDateTime start, LocalDateTime end) {
+        root = insert(root, new Node(bookingId, start, end));
+    }
+
+    void remove(long bookingId, LocalDateTime start) {
+        root = delete(root, bookingId, start);
+    }
+
+    /**
+     * Removes the periods ending at or before the given time.
+     */
+    void removeEndedBefore(LocalDateTime time) {
+        while (root != null && !root.minEnd.isAfter(time)) {
+            Node node = root;
+            while (true) {
+                if (node.left != null && !node.left.minEnd.isAfter(time)) {
+                    node = node.left;
+                } else if (!node.end.isAfter(time)) {
+                    break;
+                } else {
+                    node = node.right;
+                }
+            }
+            remove(node.bookingId, node.start);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private Node insert(Node node, Node added) {
+        if (node == null) {
+            size++;
+            return added;
+        }
+        int compared = compare(added.bookingId, added.start, node);
+        if (compared == 0) {
+            return node;
+        }
+        if (compared < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return balance(node);
+    }
+
+    private Node delete(Node node, long bookingId, LocalDateTime start) {
+        if (node == null) {
+            return null;
+        }
+        int compared = compare(bookingId, start, node);
+        if (compared < 0) {
+            node.left = delete(node.left, bookingId, start);
+        } else if (compared > 0) {
+            node.right = delete(node.right, bookingId, start);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private static int compare(long bookingId, LocalDateTime start, Node node) {
+        int compared = start.compareTo(node.start);
+        return compared != 0 ? compared : Long.compare(bookingId, node.bookingId);
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        node.maxEnd = node.end;
+        node.minEnd = node.end;
+        if (node.left != null) {
+            node.maxEnd = max(node.maxEnd, node.left.maxEnd);
+            node.minEnd = min(node.minEnd, node.left.minEnd);
+        }
+        if (node.right != null) {
+            node.maxEnd = max(node.maxEnd, node.right.maxEnd);
+            node.minEnd = min(node.minEnd, node.right.minEnd);
+        }
+    }
+
+    private static LocalDateTime max(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+
+    private static LocalDateTime min(LocalDateTime first, LocalDateTime second) {
+        return first.isBefore(second) ? first : second;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static class Node {
+
+        private final long bookingId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private LocalDateTime maxEnd;
+        private LocalDateTime minEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        Node(long bookingId, LocalDateTime start, LocalDateTime end) {
+            this.bookingId = bookingId;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+            this.minEnd = end;
+        }
+    }
+}
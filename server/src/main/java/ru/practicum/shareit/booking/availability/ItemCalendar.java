@@ -0,0 +1,158 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingProperties;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hourly occupancy of items by approved bookings: one bit per hour counted from the hour the item's
+ * calendar was loaded, so a year of an item's calendar takes about a kilobyte. Only the most recently
+ * requested calendars are kept.
+ */
+@Component
+public class ItemCalendar {
+
+    private static final int HORIZON_HOURS = 2 * 366 * 24;
+    private static final int RELOAD_AFTER_HOURS = 366 * 24;
+
+    private final BookingRepository bookingRepository;
+    private final LinkedHashMap<Long, Occupancy> occupancies;
+
+    @Autowired
+    public ItemCalendar(BookingRepository bookingRepository, BookingProperties bookingProperties) {
+        this.bookingRepository = bookingRepository;
+        BookingProperties.Calendar properties = bookingProperties.getCalendar();
+        this.occupancies = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Occupancy> eldest) {
+                return size() > properties.getMaxSize();
+            }
+        };
+    }
+
+    /**
+     * Splits {@code [from, to)} into alternating free and busy slots. Hours before the calendar was loaded
+     * or beyond its two-year horizon are not tracked and are left out; a calendar older than a year is
+     * reloaded to move the horizon on.
+     */
+    public List<ItemAvailabilityDto.SlotDto> getSlots(Long itemId, LocalDateTime from, LocalDateTime to) {
+        Occupancy occupancy;
+        synchronized (occupancies) {
+            occupancy = occupancies.get(itemId);
+            if (occupancy == null || occupancy.floorIndex(LocalDateTime.now()) >= RELOAD_AFTER_HOURS) {
+                occupancy = new Occupancy(LocalDateTime.now().truncatedTo(ChronoUnit.HOURS));
+                occupancies.put(itemId, occupancy);
+            }
+        }
+        synchronized (occupancy) {
+            if (!occupancy.loaded) {
+                load(itemId, occupancy);
+            }
+            return occupancy.slots(from, to);
+        }
+    }
+
+    /**
+     * Marks an approved booking's hours as busy. Called after the approval commits: a calendar is loaded
+     * under its own lock, so the change either waits for a running load and is applied to its result
+     * or comes before the load, which then reads it.
+     */
+    public void statusChanged(Booking booking) {
+        if (booking.getStatus() != BookingStatus.APPROVED) {
+            return;
+        }
+        Occupancy occupancy;
+        synchronized (occupancies) {
+            occupancy = occupancies.get(booking.getItem().getId());
+        }
+        if (occupancy != null) {
+            synchronized (occupancy) {
+                if (occupancy.loaded) {
+                    occupancy.occupy(booking.getStartTime(), booking.getEndTime());
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the calendars of the items whose bookings were deleted, so they are reloaded on the next request.
+     */
+    public void evict(Collection<Long> itemIds) {
+        synchronized (occupancies) {
+            itemIds.forEach(occupancies::remove);
+        }
+    }
+
+    private void load(Long itemId, Occupancy occupancy) {
+        bookingRepository.findAllByItemIdAndStatusInAndEndTimeAfter(
+                        itemId, List.of(BookingStatus.APPROVED), occupancy.firstHour)
+                .forEach(booking -> occupancy.occupy(booking.getStartTime(), booking.getEndTime()));
+        occupancy.loaded = true;
+    }
+
+    private static class Occupancy {
+
+        private final LocalDateTime firstHour;
+        private final BitSet hours = new BitSet();
+        private boolean loaded;
+
+        Occupancy(LocalDateTime firstHour) {
+            this.firstHour = firstHour;
+        }
+
+        void occupy(LocalDateTime start, LocalDateTime end) {
+            int fromIndex = Math.max(0, floorIndex(start));
+            int toIndex = ceilIndex(end);
+            if (fromIndex < toIndex) {
+                hours.set(fromIndex, toIndex);
+            }
+        }
+
+        List<ItemAvailabilityDto.SlotDto> slots(LocalDateTime from, LocalDateTime to) {
+            int fromIndex = Math.max(0, floorIndex(from));
+            int toIndex = ceilIndex(to);
+            List<ItemAvailabilityDto.SlotDto> slots = new ArrayList<>();
+            int index = fromIndex;
+            while (index < toIndex) {
+                boolean free = !hours.get(index);
+                int next = free ? hours.nextSetBit(index) : hours.nextClearBit(index);
+                if (next < 0 || next > toIndex) {
+                    next = toIndex;
+                }
+                slots.add(ItemAvailabilityDto.SlotDto.builder()
+                        .start(firstHour.plusHours(index))
+                        .end(firstHour.plusHours(next))
+                        .free(free)
+                        .build());
+                index = next;
+            }
+            return slots;
+        }
+
+        private int floorIndex(LocalDateTime time) {
+            return clamp(ChronoUnit.HOURS.between(firstHour, time.truncatedTo(ChronoUnit.HOURS)));
+        }
+
+        private int ceilIndex(LocalDateTime time) {
+            LocalDateTime hour = time.truncatedTo(ChronoUnit.HOURS);
+            return clamp(ChronoUnit.HOURS.between(firstHour, hour.equals(time) ? hour : hour.plusHours(1)));
+        }
+
+        private static int clamp(long index) {
+            return (int) Math.max(0, Math.min(index, HORIZON_HOURS));
+        }
+    }
+}
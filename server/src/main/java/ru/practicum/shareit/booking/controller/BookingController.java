@@ -6,9 +6,16 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.BookingCursor;
 import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -21,6 +28,9 @@ import java.util.List;
 @RequestMapping(path = "/bookings")
 public class BookingController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final Sort BY_START_DESC = Sort.by(Sort.Direction.DESC, "startTime", "id");
+
     private final BookingService bookingService;
 
     @Autowired
@@ -49,6 +59,15 @@ public class BookingController {
         return updatedBooking;
     }
 
+    @PatchMapping("/batch")
+    public List<BookingApprovalResultDto> updateBatch(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                      @RequestBody List<BookingApprovalDto> approvals) {
+        log.info("Request received: PATCH /bookings/batch: {}", approvals);
+        List<BookingApprovalResultDto> results = bookingService.update(approvals, userId);
+        log.info("Request PATCH /bookings/batch processed: {}", results);
+        return results;
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getById(@RequestHeader("X-Sharer-User-Id") long userId,
                               @PathVariable Long bookingId
@@ -60,34 +79,71 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getAllByUserQuery(
+    public ResponseEntity<List<BookingDto>> getAllByUserQuery(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam String state,
             @RequestParam(value = "from") int offset,
-            @RequestParam(value = "size") int limit
+            @RequestParam(value = "size") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor
     ) {
         log.debug("Request received: GET /bookings");
         BookingState bookingState = BookingState.from(state)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
-        Pageable pageable = PageRequest.of(offset / limit, limit, Sort.by(Sort.Direction.DESC, "startTime"));
-        List<BookingDto> searchedBookings = bookingService.getAllByUserQuery(userId, bookingState, pageable);
+        BookingCursor after = cursor == null ? null : BookingCursor.decode(cursor);
+        Pageable pageable = PageRequest.of(after == null ? offset / limit : 0, limit, BY_START_DESC);
+        List<BookingDto> searchedBookings = bookingService.getAllByUserQuery(userId, bookingState, after, pageable);
         log.debug("Request GET /bookings processed: searchedBookings: {}", searchedBookings);
-        return searchedBookings;
+        return withNextCursor(searchedBookings, limit);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllByOwnerQuery(
+    public ResponseEntity<List<BookingDto>> getAllByOwnerQuery(
             @RequestHeader("X-Sharer-User-Id") long userId,
             @RequestParam String state,
             @RequestParam(value = "from") int offset,
-            @RequestParam(value = "size") int limit
+            @RequestParam(value = "size") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor
     ) {
         log.debug("Request received: GET /bookings/owner");
         BookingState bookingState = BookingState.from(state)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
-        Pageable pageable = PageRequest.of(offset / limit, limit, Sort.by(Sort.Direction.DESC, "startTime"));
-        List<BookingDto> searchedBookings = bookingService.getAllByOwnerQuery(userId, bookingState, pageable);
+        BookingCursor after = cursor == null ? null : BookingCursor.decode(cursor);
+        Pageable pageable = PageRequest.of(after == null ? offset / limit : 0, limit, BY_START_DESC);
+        List<BookingDto> searchedBookings = bookingService.getAllByOwnerQuery(userId, bookingState, after, pageable);
         log.debug("Request GET /bookings/owner processed: searchedBookings: {}", searchedBookings);
-        return searchedBookings;
+        return withNextCursor(searchedBookings, limit);
+    }
+
+    @GetMapping("/counts")
+    public BookingCountsDto getCountsByUser(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.debug("Request received: GET /bookings/counts");
+        BookingCountsDto counts = bookingService.getCountsByUser(userId);
+        log.debug("Request GET /bookings/counts processed: {}", counts);
+        return counts;
+    }
+
+    @GetMapping("/owner/counts")
+    public BookingCountsDto getCountsByOwner(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.debug("Request received: GET /bookings/owner/counts");
+        BookingCountsDto counts = bookingService.getCountsByOwner(userId);
+        log.debug("Request GET /bookings/owner/counts processed: {}", counts);
+        return counts;
+    }
+
+    @GetMapping(path = "/owner/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOwnerEvents(@RequestHeader("X-Sharer-User-Id") long userId,
+                                        @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.info("Request received: GET /bookings/owner/stream, userId={}, Last-Event-ID={}", userId, lastEventId);
+        return bookingService.streamOwnerEvents(userId, lastEventId);
+    }
+
+    private static ResponseEntity<List<BookingDto>> withNextCursor(List<BookingDto> bookings, int limit) {
+        if (bookings.size() < limit) {
+            return ResponseEntity.ok(bookings);
+        }
+        BookingDto last = bookings.get(bookings.size() - 1);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, new BookingCursor(last.getStartTime(), last.getId()).encode())
+                .body(bookings);
     }
 }
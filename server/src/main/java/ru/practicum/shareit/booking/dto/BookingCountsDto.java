@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BookingCountsDto {
+
+    private long all;
+
+    private long current;
+
+    private long future;
+
+    private long past;
+
+    private long rejected;
+
+    private long waiting;
+}
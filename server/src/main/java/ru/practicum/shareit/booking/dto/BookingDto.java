@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.ToString;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 
 @Data
 @Builder
+@AllArgsConstructor
 @ToString
 public class BookingDto {
 
@@ -27,6 +29,14 @@ public class BookingDto {
 
     ItemDto item;
 
+    /**
+     * Used by the constructor expressions of the booking list queries.
+     */
+    public BookingDto(Long id, LocalDateTime startTime, LocalDateTime endTime, BookingStatus status,
+                      Long bookerId, Long itemId, String itemName) {
+        this(id, startTime, endTime, status, new UserDto(bookerId), new ItemDto(itemId, itemName));
+    }
+
     @Data
     @Builder
     public static class UserDto {
@@ -9,8 +9,6 @@ import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
-import java.util.List;
-
 import static org.mapstruct.MappingConstants.ComponentModel.SPRING;
 
 @Component
@@ -20,12 +18,11 @@ public interface BookingMapper {
     BookingDto toBookingDto(Booking booking);
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Booking toBooking(BookingCreateDto bookingCreateDto, Item item, User booker, BookingStatus status);
 
     BookingDto.UserDto map(User user);
 
     BookingDto.ItemDto map(Item item);
 
-    List<BookingDto> toListBookingDto(List<Booking> bookingList);
-
 }
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.*;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A finished booking moved out of BOOKINGS by the archiver. Archived bookings are read-only.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "BOOKINGS_ARCHIVE", schema = "PUBLIC")
+public class ArchivedBooking {
+
+    @Id
+    @Column(name = "BOOKING_ID")
+    Long id;
+
+    @Column(name = "START_TIME")
+    LocalDateTime startTime;
+
+    @Column(name = "END_TIME")
+    LocalDateTime endTime;
+
+    @ManyToOne
+    @JoinColumn(name = "ITEM_ID")
+    Item item;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "USER_ID")
+    User booker;
+
+    @Column(name = "STATUS")
+    @Enumerated(EnumType.STRING)
+    BookingStatus status;
+
+    public Booking toBooking() {
+        return Booking.builder()
+                .id(id)
+                .startTime(startTime)
+                .endTime(endTime)
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build();
+    }
+}
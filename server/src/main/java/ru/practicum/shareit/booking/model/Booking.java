@@ -38,4 +38,8 @@ public class Booking {
     @Column(name = "STATUS")
     @Enumerated(EnumType.STRING)
     BookingStatus status;
+
+    @Version
+    @Column(name = "VERSION")
+    Long version;
 }
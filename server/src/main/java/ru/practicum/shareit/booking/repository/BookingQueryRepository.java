@@ -0,0 +1,39 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingRole;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface BookingQueryRepository {
+
+    /**
+     * Returns the bookings the user takes part in with the given role and state, selecting only the columns
+     * of {@link BookingDto} with one query per table. If {@code after} is given, only the bookings following
+     * it in the (start time, id) descending order are returned and the page offset is ignored. States that
+     * archived bookings can be in are read from both BOOKINGS and BOOKINGS_ARCHIVE.
+     */
+    List<BookingDto> findAllByState(long userId, BookingRole role, BookingState state, LocalDateTime now,
+                                    BookingCursor after, Pageable pageable);
+
+    /**
+     * Counts the bookings the user takes part in with the given role in every state with one aggregate query
+     * per table.
+     */
+    Map<BookingState, Long> countAllByState(long userId, BookingRole role, LocalDateTime now);
+
+    Optional<Booking> findArchivedById(Long bookingId);
+
+    /**
+     * Checks whether the user has an approved booking of the item that ended before {@code now}, archived
+     * or not.
+     */
+    boolean existsFinishedApprovedBooking(long bookerId, Long itemId, LocalDateTime now);
+}
@@ -0,0 +1,189 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingRole;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class BookingQueryRepositoryImpl implements BookingQueryRepository {
+
+    // The columns follow the order of BookingState values
+    private static final String COUNT_QUERY = "SELECT COUNT(b), " +
+            "SUM(CASE WHEN b.startTime < :now AND b.endTime > :now THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN b.startTime > :now THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN b.endTime < :now THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN b.status = :rejected THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN b.status = :waiting THEN 1 ELSE 0 END) " +
+            "FROM %s AS b %s";
+    private static final String BOOKER_CONDITION = "WHERE b.booker.id = :userId";
+    private static final String OWNER_CONDITION = "JOIN b.item AS i WHERE i.owner.id = :userId";
+
+    private static final String FINISHED_QUERY = "SELECT b.id FROM %s AS b WHERE b.booker.id = :bookerId " +
+            "AND b.item.id = :itemId AND b.status = :approved AND b.endTime < :now";
+
+    // Archived bookings ended long ago, so they are never current or future
+    private static final Set<BookingState> ARCHIVED_STATES =
+            EnumSet.of(BookingState.ALL, BookingState.PAST, BookingState.REJECTED, BookingState.WAITING);
+
+    private static final Map<String, Comparator<BookingDto>> ORDERS = Map.of(
+            "id", Comparator.comparing(BookingDto::getId),
+            "startTime", Comparator.comparing(BookingDto::getStartTime),
+            "endTime", Comparator.comparing(BookingDto::getEndTime));
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingDto> findAllByState(long userId, BookingRole role, BookingState state, LocalDateTime now,
+                                           BookingCursor after, Pageable pageable) {
+        int offset = after == null ? (int) pageable.getOffset() : 0;
+        int limit = pageable.getPageSize();
+        if (!ARCHIVED_STATES.contains(state)) {
+            return findAllByState(Booking.class, userId, role, state, now, after, pageable.getSort(), offset, limit);
+        }
+        // The page may be anywhere in the merged order, so both tables are read up to its end
+        List<BookingDto> bookings = new ArrayList<>(findAllByState(
+                Booking.class, userId, role, state, now, after, pageable.getSort(), 0, offset + limit));
+        bookings.addAll(findAllByState(
+                ArchivedBooking.class, userId, role, state, now, after, pageable.getSort(), 0, offset + limit));
+        return bookings.stream()
+                .sorted(toComparator(pageable.getSort()))
+                .skip(offset)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Map<BookingState, Long> countAllByState(long userId, BookingRole role, LocalDateTime now) {
+        Map<BookingState, Long> counts = new EnumMap<>(BookingState.class);
+        for (String entity : List.of("Booking", "ArchivedBooking")) {
+            Object[] row = entityManager.createQuery(String.format(COUNT_QUERY, entity,
+                            role == BookingRole.OWNER ? OWNER_CONDITION : BOOKER_CONDITION), Object[].class)
+                    .setParameter("userId", userId)
+                    .setParameter("now", now)
+                    .setParameter("rejected", BookingStatus.REJECTED)
+                    .setParameter("waiting", BookingStatus.WAITING)
+                    .getSingleResult();
+            for (BookingState state : BookingState.values()) {
+                Number count = (Number) row[state.ordinal()];
+                counts.merge(state, count == null ? 0 : count.longValue(), Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public Optional<Booking> findArchivedById(Long bookingId) {
+        return Optional.ofNullable(entityManager.find(ArchivedBooking.class, bookingId))
+                .map(ArchivedBooking::toBooking);
+    }
+
+    @Override
+    public boolean existsFinishedApprovedBooking(long bookerId, Long itemId, LocalDateTime now) {
+        for (String entity : List.of("Booking", "ArchivedBooking")) {
+            boolean exists = !entityManager.createQuery(String.format(FINISHED_QUERY, entity), Long.class)
+                    .setParameter("bookerId", bookerId)
+                    .setParameter("itemId", itemId)
+                    .setParameter("approved", BookingStatus.APPROVED)
+                    .setParameter("now", now)
+                    .setMaxResults(1)
+                    .getResultList()
+                    .isEmpty();
+            if (exists) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private <T> List<BookingDto> findAllByState(Class<T> type, long userId, BookingRole role, BookingState state,
+                                                LocalDateTime now, BookingCursor after, Sort sort,
+                                                int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingDto> query = cb.createQuery(BookingDto.class);
+        Root<T> booking = query.from(type);
+        // Only the item's name needs a join, the booker and owner ids are read from the foreign keys
+        Join<T, Item> item = booking.join("item");
+
+        ParameterExpression<Long> user = cb.parameter(Long.class);
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(role == BookingRole.OWNER
+                ? cb.equal(item.get("owner").get("id"), user)
+                : cb.equal(booking.get("booker").get("id"), user));
+        switch (state) {
+            case CURRENT:
+                predicates.add(cb.lessThan(booking.get("startTime"), now));
+                predicates.add(cb.greaterThan(booking.get("endTime"), now));
+                break;
+            case FUTURE:
+                predicates.add(cb.greaterThan(booking.get("startTime"), now));
+                break;
+            case PAST:
+                predicates.add(cb.lessThan(booking.get("endTime"), now));
+                break;
+            case REJECTED:
+                predicates.add(cb.equal(booking.get("status"), BookingStatus.REJECTED));
+                break;
+            case WAITING:
+                predicates.add(cb.equal(booking.get("status"), BookingStatus.WAITING));
+                break;
+            default:
+                break;
+        }
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(booking.get("startTime"), after.getStartTime()),
+                    cb.and(cb.equal(booking.get("startTime"), after.getStartTime()),
+                            cb.lessThan(booking.get("id"), after.getId()))));
+        }
+        query.select(cb.construct(BookingDto.class,
+                        booking.get("id"),
+                        booking.get("startTime"),
+                        booking.get("endTime"),
+                        booking.get("status"),
+                        booking.get("booker").get("id"),
+                        item.get("id"),
+                        item.get("name")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(toOrders(sort, booking, cb));
+        return entityManager.createQuery(query)
+                .setParameter(user, userId)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static Comparator<BookingDto> toComparator(Sort sort) {
+        Comparator<BookingDto> comparator = (first, second) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<BookingDto> byProperty = ORDERS.get(order.getProperty());
+            if (byProperty == null) {
+                throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            }
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+}
@@ -1,45 +1,47 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    List<Booking> findAllByBookerId(long userId, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStartTimeBeforeAndEndTimeAfter(
-            long userId, LocalDateTime now, LocalDateTime end, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStartTimeAfter(long userId, LocalDateTime now, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndEndTimeBefore(long userId, LocalDateTime now, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStatus(long userId, BookingStatus status, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerId(long userId, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStartTimeBeforeAndEndTimeAfter(
-            long userId, LocalDateTime start, LocalDateTime end, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStartTimeAfter(long userId, LocalDateTime now, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndEndTimeBefore(long userId, LocalDateTime now, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStatus(long userId, BookingStatus status, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndItemIdAndStatusIsAndEndTimeBefore(
-            Long userId, Long itemId, BookingStatus status, LocalDateTime now);
-
-    List<Booking> findAllByItemIdAndStatusIs(
-            Long itemId, BookingStatus bookingStatus, Sort sort);
-
-    List<Booking> findAllByItemIdInAndStatusIs(List<Long> itemsId, BookingStatus bookingStatus);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingQueryRepository {
+
+    List<Booking> findAllByItemIdAndStatusInAndEndTimeAfter(
+            Long itemId, Collection<BookingStatus> statuses, LocalDateTime now);
+
+    /**
+     * Sets the status of a waiting booking of the owner's item in one statement.
+     *
+     * @return 0 if the booking doesn't exist, isn't waiting or belongs to another owner's item
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking AS b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id = :bookingId AND b.status = :waiting " +
+            "AND b.item IN (SELECT i FROM Item AS i WHERE i.owner.id = :ownerId)")
+    int updateStatusIfWaiting(@Param("bookingId") Long bookingId,
+                              @Param("ownerId") long ownerId,
+                              @Param("status") BookingStatus status,
+                              @Param("waiting") BookingStatus waiting);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH i.owner JOIN FETCH b.booker " +
+            "WHERE b.id = :bookingId")
+    Optional<Booking> findWithItemAndBookerById(@Param("bookingId") Long bookingId);
+
+    @Query("SELECT b FROM Booking AS b JOIN FETCH b.item AS i JOIN FETCH i.owner WHERE b.id IN :ids")
+    List<Booking> findAllWithItemByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT b.item.id FROM Booking AS b WHERE b.booker.id = :bookerId")
+    List<Long> findAllItemIdsByBookerId(@Param("bookerId") Long bookerId);
 }
@@ -1,7 +1,12 @@
 package ru.practicum.shareit.booking.service;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.BookingCursor;
 import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 
@@ -12,9 +17,21 @@ public interface BookingService {
 
     BookingDto update(Long bookingId, long userId, Boolean approved);
 
+    List<BookingApprovalResultDto> update(List<BookingApprovalDto> approvals, long userId);
+
     BookingDto getBooking(Long bookingId, long userId);
 
-    List<BookingDto> getAllByOwnerQuery(long userId, BookingState state, Pageable pageable);
+    List<BookingDto> getAllByOwnerQuery(long userId, BookingState state, BookingCursor after, Pageable pageable);
+
+    List<BookingDto> getAllByUserQuery(long userId, BookingState state, BookingCursor after, Pageable pageable);
+
+    BookingCountsDto getCountsByUser(long userId);
+
+    BookingCountsDto getCountsByOwner(long userId);
 
-    List<BookingDto> getAllByUserQuery(long userId, BookingState state, Pageable pageable);
+    /**
+     * Streams new bookings of the owner's items and status changes of these bookings as SSE, resuming after
+     * {@code lastEventId} if it is given.
+     */
+    SseEmitter streamOwnerEvents(long userId, Long lastEventId);
 }
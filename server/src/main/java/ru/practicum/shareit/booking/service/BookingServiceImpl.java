@@ -1,40 +1,98 @@
 package ru.practicum.shareit.booking.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.BookingBatchWriter;
+import ru.practicum.shareit.booking.BookingCountsCache;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingRole;
 import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.availability.BookingAvailability;
+import ru.practicum.shareit.booking.availability.ItemCalendar;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaries;
+import ru.practicum.shareit.exception.ErrorHandler;
 import ru.practicum.shareit.exception.NotAccessException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxEventType;
+import ru.practicum.shareit.outbox.OutboxEvents;
+import ru.practicum.shareit.outbox.OutboxPublisher;
+import ru.practicum.shareit.transaction.AfterCommit;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.sql.Connection;
+import java.sql.Savepoint;
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class BookingServiceImpl implements BookingService {
 
+    private static final String APPROVE_QUERY = "UPDATE BOOKINGS SET STATUS = ?, VERSION = VERSION + 1 WHERE BOOKING_ID = ? AND STATUS = ?";
+
     public final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingMapper bookingMapper;
+    private final BookingAvailability bookingAvailability;
+    private final ItemCalendar itemCalendar;
+    private final ItemBookingSummaries itemBookingSummaries;
+    private final BookingCountsCache bookingCountsCache;
+    private final BookingBatchWriter bookingBatchWriter;
+    private final OutboxEvents outboxEvents;
+    private final OutboxPublisher outboxPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public BookingServiceImpl(BookingRepository bookingRepository, UserRepository userRepository, ItemRepository itemRepository, BookingMapper bookingMapper) {
+    public BookingServiceImpl(BookingRepository bookingRepository, UserRepository userRepository, ItemRepository itemRepository, BookingMapper bookingMapper,
+                              BookingAvailability bookingAvailability, ItemCalendar itemCalendar,
+                              ItemBookingSummaries itemBookingSummaries, BookingCountsCache bookingCountsCache,
+                              BookingBatchWriter bookingBatchWriter, OutboxEvents outboxEvents,
+                              OutboxPublisher outboxPublisher, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
         this.bookingRepository = bookingRepository;
         this.userRepository = userRepository;
         this.itemRepository = itemRepository;
         this.bookingMapper = bookingMapper;
+        this.bookingAvailability = bookingAvailability;
+        this.itemCalendar = itemCalendar;
+        this.itemBookingSummaries = itemBookingSummaries;
+        this.bookingCountsCache = bookingCountsCache;
+        this.bookingBatchWriter = bookingBatchWriter;
+        this.outboxEvents = outboxEvents;
+        this.outboxPublisher = outboxPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -53,26 +111,107 @@ public class BookingServiceImpl implements BookingService {
             throw new NotAccessException("Owner can't book his own item");
         }
         Booking booking = bookingMapper.toBooking(bookingDto, item, user, BookingStatus.WAITING);
-        return bookingMapper.toBookingDto(bookingRepository.save(booking));
+        // Not a @Transactional method: with group commit, waiting requests must not hold connections
+        Booking savedBooking = bookingBatchWriter.isEnabled()
+                ? await(bookingAvailability.reserveAsync(booking,
+                        newBooking -> bookingBatchWriter.submit(newBooking, this::bookingCreated)))
+                : bookingAvailability.reserve(booking, newBooking -> transactionTemplate.execute(status -> {
+                    Booking insertedBooking = bookingRepository.save(newBooking);
+                    bookingCreated(insertedBooking);
+                    return insertedBooking;
+                }));
+        bookingCountsCache.evict(savedBooking);
+        return bookingMapper.toBookingDto(savedBooking);
     }
 
     @Override
+    @Transactional
     public BookingDto update(Long bookingId, long userId, Boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId)
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        Booking booking = bookingRepository.findWithItemAndBookerById(bookingId)
                 .orElseThrow(() -> new NotFoundException(String.format("Booking id=%d not found", bookingId)));
-        if (!userRepository.existsById(userId)) {
-            throw new NotFoundException(String.format("User id=%d not found", userId));
-        }
-        Item item = booking.getItem();
-        if (!item.getOwner().getId().equals(userId)) {
+        if (!booking.getItem().getOwner().getId().equals(userId)) {
+            if (!userRepository.existsById(userId)) {
+                throw new NotFoundException(String.format("User id=%d not found", userId));
+            }
             throw new NotAccessException("Only item's owner can approve booking");
         }
         if (!booking.getStatus().equals(BookingStatus.WAITING)) {
             throw new IllegalArgumentException(
                     String.format("Status has already changed to %s", booking.getStatus()));
         }
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        return bookingMapper.toBookingDto(bookingRepository.save(booking));
+        if (bookingRepository.updateStatusIfWaiting(bookingId, userId, status, BookingStatus.WAITING) != 1) {
+            throw new ObjectOptimisticLockingFailureException(Booking.class, bookingId);
+        }
+        booking.setStatus(status);
+        BookingDto bookingDto = bookingMapper.toBookingDto(booking);
+        statusChanged(booking, bookingDto);
+        return bookingDto;
+    }
+
+    @Override
+    @Transactional
+    public List<BookingApprovalResultDto> update(List<BookingApprovalDto> approvals, long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException(String.format("User id=%d not found", userId));
+        }
+        Map<Long, Booking> bookings = bookingRepository.findAllWithItemByIdIn(approvals.stream()
+                        .map(BookingApprovalDto::getBookingId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        List<BookingApprovalResultDto> results = new ArrayList<>(approvals.size());
+        List<Booking> approved = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (BookingApprovalDto approval : approvals) {
+            Long bookingId = approval.getBookingId();
+            Booking booking = bookings.get(bookingId);
+            String error = null;
+            if (booking == null) {
+                error = String.format("Booking id=%d not found", bookingId);
+            } else if (!seen.add(bookingId)) {
+                error = String.format("Booking id=%d is repeated", bookingId);
+            } else if (!booking.getItem().getOwner().getId().equals(userId)) {
+                error = "Only item's owner can approve booking";
+            } else if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+                error = String.format("Status has already changed to %s", booking.getStatus());
+            }
+            if (error != null) {
+                results.add(BookingApprovalResultDto.builder().bookingId(bookingId).error(error).build());
+                continue;
+            }
+            approved.add(Booking.builder()
+                    .id(bookingId)
+                    .startTime(booking.getStartTime())
+                    .endTime(booking.getEndTime())
+                    .item(booking.getItem())
+                    .booker(booking.getBooker())
+                    .status(approval.getApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED)
+                    .build());
+            results.add(null);
+        }
+
+        Iterator<String> errors = applyApprovals(approved).iterator();
+        Iterator<Booking> applied = approved.iterator();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) != null) {
+                continue;
+            }
+            Booking booking = applied.next();
+            String error = errors.next();
+            if (error != null) {
+                results.set(i, BookingApprovalResultDto.builder()
+                        .bookingId(booking.getId())
+                        .error(error)
+                        .build());
+                continue;
+            }
+            statusChanged(booking, bookingMapper.toBookingDto(booking));
+            results.set(i, BookingApprovalResultDto.builder()
+                    .bookingId(booking.getId())
+                    .status(booking.getStatus())
+                    .build());
+        }
+        return results;
     }
 
     @Override
@@ -81,6 +220,7 @@ public class BookingServiceImpl implements BookingService {
             throw new NotFoundException(String.format("User id=%d not found", userId));
         }
         Booking booking = bookingRepository.findById(bookingId)
+                .or(() -> bookingRepository.findArchivedById(bookingId))
                 .orElseThrow(() -> new NotFoundException(String.format("Booking id=%d not found", bookingId)));
         if (!(booking.getItem().getOwner().getId().equals(userId) ||
                 booking.getBooker().getId().equals(userId))) {
@@ -90,76 +230,143 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getAllByUserQuery(long userId, BookingState state, Pageable pageable) {
+    public List<BookingDto> getAllByUserQuery(long userId, BookingState state, BookingCursor after, Pageable pageable) {
+        return getAllByState(userId, BookingRole.BOOKER, state, after, pageable);
+    }
+
+    @Override
+    public List<BookingDto> getAllByOwnerQuery(long userId, BookingState state, BookingCursor after,
+                                               Pageable pageable) {
+        return getAllByState(userId, BookingRole.OWNER, state, after, pageable);
+    }
+
+    @Override
+    public BookingCountsDto getCountsByUser(long userId) {
+        return getCounts(userId, BookingRole.BOOKER);
+    }
+
+    @Override
+    public BookingCountsDto getCountsByOwner(long userId) {
+        return getCounts(userId, BookingRole.OWNER);
+    }
+
+    private BookingCountsDto getCounts(long userId, BookingRole role) {
         if (!userRepository.existsById(userId)) {
             throw new NotFoundException(String.format("User id=%d not found", userId));
         }
-        List<Booking> requestedBooking;
-        LocalDateTime now = LocalDateTime.now();
-        switch (state) {
-            case ALL:
-                requestedBooking = bookingRepository.findAllByBookerId(userId, pageable);
-                break;
-            case CURRENT:
-                requestedBooking = bookingRepository
-                        .findAllByBookerIdAndStartTimeBeforeAndEndTimeAfter(userId, now, now, pageable);
-                break;
-            case FUTURE:
-                requestedBooking = bookingRepository
-                        .findAllByBookerIdAndStartTimeAfter(userId, now, pageable);
-                break;
-            case PAST:
-                requestedBooking = bookingRepository
-                        .findAllByBookerIdAndEndTimeBefore(userId, now, pageable);
-                break;
-            case REJECTED:
-                requestedBooking = bookingRepository
-                        .findAllByBookerIdAndStatus(userId, BookingStatus.REJECTED, pageable);
-                break;
-            case WAITING:
-                requestedBooking = bookingRepository
-                        .findAllByBookerIdAndStatus(userId, BookingStatus.WAITING, pageable);
-                break;
-            default:
-                requestedBooking = Collections.emptyList();
-        }
-        return bookingMapper.toListBookingDto(requestedBooking);
+        return bookingCountsCache.get(userId, role, () -> {
+            Map<BookingState, Long> counts = bookingRepository.countAllByState(userId, role, LocalDateTime.now());
+            return BookingCountsDto.builder()
+                    .all(counts.get(BookingState.ALL))
+                    .current(counts.get(BookingState.CURRENT))
+                    .future(counts.get(BookingState.FUTURE))
+                    .past(counts.get(BookingState.PAST))
+                    .rejected(counts.get(BookingState.REJECTED))
+                    .waiting(counts.get(BookingState.WAITING))
+                    .build();
+        });
+    }
+
+    private List<BookingDto> getAllByState(long userId, BookingRole role, BookingState state, BookingCursor after,
+                                           Pageable pageable) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException(String.format("User id=%d not found", userId));
+        }
+        return bookingRepository.findAllByState(userId, role, state, LocalDateTime.now(), after, pageable);
     }
 
     @Override
-    public List<BookingDto> getAllByOwnerQuery(long userId, BookingState state, Pageable pageable) {
+    public SseEmitter streamOwnerEvents(long userId, Long lastEventId) {
         if (!userRepository.existsById(userId)) {
             throw new NotFoundException(String.format("User id=%d not found", userId));
         }
-        List<Booking> requestedBooking;
-        LocalDateTime now = LocalDateTime.now();
-        switch (state) {
-            case ALL:
-                requestedBooking = bookingRepository.findAllByItemOwnerId(userId, pageable);
-                break;
-            case CURRENT:
-                requestedBooking = bookingRepository
-                        .findAllByItemOwnerIdAndStartTimeBeforeAndEndTimeAfter(userId, now, now, pageable);
-                break;
-            case FUTURE:
-                requestedBooking = bookingRepository
-                        .findAllByItemOwnerIdAndStartTimeAfter(userId, now, pageable);
-                break;
-            case PAST:
-                requestedBooking = bookingRepository
-                        .findAllByItemOwnerIdAndEndTimeBefore(userId, now, pageable);
-                break;
-            case REJECTED:
-                requestedBooking = bookingRepository
-                        .findAllByItemOwnerIdAndStatus(userId, BookingStatus.REJECTED, pageable);
-                break;
-            case WAITING:
-                requestedBooking = bookingRepository
-                        .findAllByItemOwnerIdAndStatus(userId, BookingStatus.WAITING, pageable);
-                break;
-            default:
-                requestedBooking = Collections.emptyList();
-        }
-        return bookingMapper.toListBookingDto(requestedBooking);
+        return outboxPublisher.streamByOwner(userId, lastEventId, event ->
+                event.getType() == OutboxEventType.BOOKING_CREATED
+                        || event.getType() == OutboxEventType.BOOKING_STATUS_CHANGED);
+    }
+
+    private void bookingCreated(Booking booking) {
+        outboxEvents.append(OutboxEventType.BOOKING_CREATED, booking.getId(), booking.getItem().getOwner().getId(),
+                bookingMapper.toBookingDto(booking));
+    }
+
+    /**
+     * Applies the approvals in one batch under a savepoint. If a row breaks a constraint, e.g. an approved
+     * period overlapping another one, the batch is rolled back and the rows are applied one by one under
+     * their own savepoints, so only the failing bookings get an error.
+     *
+     * @return the error of each approval, null for the applied ones
+     */
+    private List<String> applyApprovals(List<Booking> approvals) {
+        List<Object[]> rows = approvals.stream()
+                .map(booking -> new Object[]{booking.getStatus().name(), booking.getId(), BookingStatus.WAITING.name()})
+                .collect(Collectors.toList());
+        int[] batchUpdated;
+        try {
+            batchUpdated = withSavepoint(() -> jdbcTemplate.batchUpdate(APPROVE_QUERY, rows));
+        } catch (DataIntegrityViolationException e) {
+            batchUpdated = null;
+        }
+        List<String> errors = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            Long bookingId = approvals.get(i).getId();
+            try {
+                int updated = batchUpdated != null
+                        ? batchUpdated[i]
+                        : withSavepoint(() -> jdbcTemplate.update(APPROVE_QUERY, row));
+                errors.add(updated == 0
+                        ? String.format("Status of booking id=%d has already changed", bookingId)
+                        : null);
+            } catch (DataIntegrityViolationException e) {
+                errors.add(ErrorHandler.getMessage(e));
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Runs the JDBC writes under a savepoint of the current transaction's connection, so a broken constraint
+     * undoes only them and the transaction can go on, also on Postgres. Hibernate's JPA dialect doesn't
+     * support nested transactions, hence the plain JDBC savepoint.
+     */
+    private <T> T withSavepoint(Supplier<T> writes) {
+        Savepoint savepoint = jdbcTemplate.execute((ConnectionCallback<Savepoint>) Connection::setSavepoint);
+        try {
+            T result = writes.get();
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                connection.releaseSavepoint(savepoint);
+                return null;
+            });
+            return result;
+        } catch (DataIntegrityViolationException e) {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                connection.rollback(savepoint);
+                return null;
+            });
+            throw e;
+        }
+    }
+
+    private void statusChanged(Booking booking, BookingDto bookingDto) {
+        outboxEvents.append(OutboxEventType.BOOKING_STATUS_CHANGED, booking.getId(),
+                booking.getItem().getOwner().getId(), bookingDto);
+        AfterCommit.run(() -> {
+            bookingAvailability.statusChanged(booking);
+            itemCalendar.statusChanged(booking);
+            itemBookingSummaries.statusChanged(booking);
+            bookingCountsCache.evict(booking);
+        });
+    }
+
+    private static Booking await(CompletableFuture<Booking> savedBooking) {
+        try {
+            return savedBooking.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
     }
 }
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.booking.summary;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the last and next approved booking of every item in ITEM_BOOKING_SUMMARIES, so item listings read
+ * one row per item instead of all of its bookings. A summary is computed the first time the item is read,
+ * moved forward by approvals and recomputed once its next booking starts.
+ */
+@Slf4j
+@Component
+public class ItemBookingSummaries {
+
+    private static final int ROLL_BATCH_SIZE = 100;
+
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final ItemBookingSummaryProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public ItemBookingSummaries(ItemBookingSummaryRepository summaryRepository,
+                                ItemBookingSummaryProperties properties,
+                                PlatformTransactionManager transactionManager) {
+        this.summaryRepository = summaryRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Returns the up-to-date summaries of the items, computing the missing and stale ones. In WINDOW mode
+     * all of them are computed from the bookings and the stored ones are not read.
+     */
+    public Map<Long, ItemBookingSummary> getAll(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (properties.getMode() == ItemBookingSummaryMode.WINDOW) {
+            return summaryRepository.computeAllByItemIdIn(itemIds, now);
+        }
+        Map<Long, ItemBookingSummary> summaries = summaryRepository.findAllByItemIdIn(itemIds).stream()
+                .filter(summary -> !summary.isStale(now))
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        List<Long> outdatedIds = itemIds.stream()
+                .filter(itemId -> !summaries.containsKey(itemId))
+                .distinct()
+                .collect(Collectors.toList());
+        if (!outdatedIds.isEmpty()) {
+            summaries.putAll(recompute(outdatedIds, now));
+        }
+        return summaries;
+    }
+
+    public ItemBookingSummary get(Long itemId) {
+        return getAll(List.of(itemId)).get(itemId);
+    }
+
+    /**
+     * Also runs in WINDOW mode, so the stored summaries stay correct when the mode is switched back.
+     */
+    public void statusChanged(Booking booking) {
+        if (booking.getStatus() != BookingStatus.APPROVED) {
+            return;
+        }
+        summaryRepository.approve(booking.getItem().getId(), booking.getId(), booking.getBooker().getId(),
+                booking.getStartTime(), LocalDateTime.now());
+    }
+
+    /**
+     * Moves forward the summaries whose next booking has started.
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.roll-interval:PT1M}")
+    public void roll() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> staleIds;
+        do {
+            staleIds = summaryRepository.findAllStaleItemIds(now, ROLL_BATCH_SIZE);
+            if (!staleIds.isEmpty()) {
+                recompute(staleIds, now);
+                log.debug("Rolled booking summaries of {} items", staleIds.size());
+            }
+        } while (staleIds.size() == ROLL_BATCH_SIZE);
+    }
+
+    /**
+     * Approvals only update stored summaries, so one committed while a new summary was being computed
+     * and inserted is missed. The inserted summaries are computed and saved once more to pick it up.
+     */
+    private Map<Long, ItemBookingSummary> recompute(List<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> summaries = summaryRepository.computeAllByItemIdIn(itemIds, now);
+        List<Long> insertedIds = save(summaries.values(), now);
+        if (!insertedIds.isEmpty()) {
+            Map<Long, ItemBookingSummary> recomputed = summaryRepository.computeAllByItemIdIn(insertedIds, now);
+            save(recomputed.values(), now);
+            summaries.putAll(recomputed);
+        }
+        return summaries;
+    }
+
+    private List<Long> save(Collection<ItemBookingSummary> summaries, LocalDateTime now) {
+        List<Long> insertedIds = new ArrayList<>();
+        for (ItemBookingSummary summary : summaries) {
+            try {
+                if (!transactionTemplate.execute(status -> summaryRepository.save(summary, now))) {
+                    insertedIds.add(summary.getItemId());
+                }
+            } catch (DuplicateKeyException e) {
+                log.debug("Booking summary of item id={} was saved concurrently", summary.getItemId());
+            }
+        }
+        return insertedIds;
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.summary;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * The last started and the next approved booking of an item, as of the time the summary was written.
+ */
+@Data
+@Builder
+public class ItemBookingSummary {
+
+    private Long itemId;
+
+    private Long lastBookingId;
+
+    private Long lastBookerId;
+
+    private LocalDateTime lastStartTime;
+
+    private Long nextBookingId;
+
+    private Long nextBookerId;
+
+    private LocalDateTime nextStartTime;
+
+    /**
+     * Tells whether the next booking has started since the summary was written, so it is the last one now.
+     */
+    public boolean isStale(LocalDateTime now) {
+        return nextStartTime != null && !nextStartTime.isAfter(now);
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.summary;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.booking-summary")
+public class ItemBookingSummaryProperties {
+
+    /**
+     * Where items' last and next bookings are read from: the maintained summary table or a window
+     * function query over the bookings on every read.
+     */
+    private ItemBookingSummaryMode mode = ItemBookingSummaryMode.SUMMARY;
+}
@@ -0,0 +1,175 @@
+package ru.practicum.shareit.booking.summary;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class ItemBookingSummaryRepository {
+
+    private static final String FIND_QUERY = "SELECT * FROM ITEM_BOOKING_SUMMARIES WHERE ITEM_ID IN (:itemIds)";
+
+    private static final String FIND_STALE_QUERY = "SELECT ITEM_ID FROM ITEM_BOOKING_SUMMARIES " +
+            "WHERE NEXT_START_TIME <= :now ORDER BY NEXT_START_TIME LIMIT :limit";
+
+    /**
+     * Numbers each item's approved bookings by start time and counts the started ones, so the last started
+     * booking is number PAST_COUNT and the next one is PAST_COUNT + 1. A booking starting exactly now is
+     * neither of them.
+     */
+    private static final String FIND_BOUNDARY_QUERY = "SELECT ITEM_ID, BOOKING_ID, USER_ID, START_TIME, " +
+            "RN <= PAST_COUNT AS PAST FROM (" +
+            "SELECT ITEM_ID, BOOKING_ID, USER_ID, START_TIME, " +
+            "ROW_NUMBER() OVER (PARTITION BY ITEM_ID ORDER BY START_TIME, BOOKING_ID) AS RN, " +
+            "COUNT(CASE WHEN START_TIME < :now THEN 1 END) OVER (PARTITION BY ITEM_ID) AS PAST_COUNT " +
+            "FROM BOOKINGS WHERE ITEM_ID IN (:itemIds) AND STATUS = :status AND START_TIME <> :now) AS RANKED " +
+            "WHERE RN = PAST_COUNT OR RN = PAST_COUNT + 1";
+
+    private static final String KEEP_LAST = "LAST_START_TIME < :now " +
+            "AND (CAST(:lastStartTime AS TIMESTAMP) IS NULL OR LAST_START_TIME > :lastStartTime)";
+
+    private static final String KEEP_NEXT = "NEXT_START_TIME > :now " +
+            "AND (CAST(:nextStartTime AS TIMESTAMP) IS NULL OR NEXT_START_TIME < :nextStartTime)";
+
+    /**
+     * Keeps a stored last or next booking that is closer to now than the computed one: it was approved after
+     * the summary was computed.
+     */
+    private static final String UPDATE_QUERY = "UPDATE ITEM_BOOKING_SUMMARIES SET " +
+            "LAST_BOOKING_ID = CASE WHEN " + KEEP_LAST + " THEN LAST_BOOKING_ID ELSE :lastBookingId END, " +
+            "LAST_BOOKER_ID = CASE WHEN " + KEEP_LAST + " THEN LAST_BOOKER_ID ELSE :lastBookerId END, " +
+            "LAST_START_TIME = CASE WHEN " + KEEP_LAST + " THEN LAST_START_TIME ELSE :lastStartTime END, " +
+            "NEXT_BOOKING_ID = CASE WHEN " + KEEP_NEXT + " THEN NEXT_BOOKING_ID ELSE :nextBookingId END, " +
+            "NEXT_BOOKER_ID = CASE WHEN " + KEEP_NEXT + " THEN NEXT_BOOKER_ID ELSE :nextBookerId END, " +
+            "NEXT_START_TIME = CASE WHEN " + KEEP_NEXT + " THEN NEXT_START_TIME ELSE :nextStartTime END " +
+            "WHERE ITEM_ID = :itemId";
+
+    private static final String INSERT_QUERY = "INSERT INTO ITEM_BOOKING_SUMMARIES (ITEM_ID, " +
+            "LAST_BOOKING_ID, LAST_BOOKER_ID, LAST_START_TIME, NEXT_BOOKING_ID, NEXT_BOOKER_ID, NEXT_START_TIME) " +
+            "VALUES (:itemId, :lastBookingId, :lastBookerId, :lastStartTime, " +
+            ":nextBookingId, :nextBookerId, :nextStartTime)";
+
+    private static final String UPDATE_LAST_QUERY = "UPDATE ITEM_BOOKING_SUMMARIES SET " +
+            "LAST_BOOKING_ID = :bookingId, LAST_BOOKER_ID = :bookerId, LAST_START_TIME = :startTime " +
+            "WHERE ITEM_ID = :itemId AND (LAST_START_TIME IS NULL OR LAST_START_TIME < :startTime)";
+
+    private static final String UPDATE_NEXT_QUERY = "UPDATE ITEM_BOOKING_SUMMARIES SET " +
+            "NEXT_BOOKING_ID = :bookingId, NEXT_BOOKER_ID = :bookerId, NEXT_START_TIME = :startTime " +
+            "WHERE ITEM_ID = :itemId AND (NEXT_START_TIME IS NULL OR NEXT_START_TIME > :startTime)";
+
+    private static final RowMapper<ItemBookingSummary> SUMMARY_ROW_MAPPER = (rs, rowNum) -> ItemBookingSummary.builder()
+            .itemId(rs.getLong("ITEM_ID"))
+            .lastBookingId(getLong(rs, "LAST_BOOKING_ID"))
+            .lastBookerId(getLong(rs, "LAST_BOOKER_ID"))
+            .lastStartTime(getDateTime(rs, "LAST_START_TIME"))
+            .nextBookingId(getLong(rs, "NEXT_BOOKING_ID"))
+            .nextBookerId(getLong(rs, "NEXT_BOOKER_ID"))
+            .nextStartTime(getDateTime(rs, "NEXT_START_TIME"))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ItemBookingSummaryRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<ItemBookingSummary> findAllByItemIdIn(Collection<Long> itemIds) {
+        return jdbcTemplate.query(FIND_QUERY, Map.of("itemIds", itemIds), SUMMARY_ROW_MAPPER);
+    }
+
+    /**
+     * Returns the items whose next booking has started by {@code now}, the longest overdue first.
+     */
+    public List<Long> findAllStaleItemIds(LocalDateTime now, int limit) {
+        return jdbcTemplate.queryForList(FIND_STALE_QUERY, Map.of("now", now, "limit", limit), Long.class);
+    }
+
+    /**
+     * Computes the summaries of the items from their approved bookings in one pass over each item's bookings.
+     */
+    public Map<Long, ItemBookingSummary> computeAllByItemIdIn(Collection<Long> itemIds, LocalDateTime now) {
+        Map<Long, ItemBookingSummary> summaries = new HashMap<>();
+        itemIds.forEach(itemId -> summaries.put(itemId, ItemBookingSummary.builder().itemId(itemId).build()));
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("itemIds", itemIds)
+                .addValue("status", BookingStatus.APPROVED.name())
+                .addValue("now", now);
+        jdbcTemplate.query(FIND_BOUNDARY_QUERY, params, rs -> {
+            ItemBookingSummary summary = summaries.get(rs.getLong("ITEM_ID"));
+            if (rs.getBoolean("PAST")) {
+                summary.setLastBookingId(rs.getLong("BOOKING_ID"));
+                summary.setLastBookerId(rs.getLong("USER_ID"));
+                summary.setLastStartTime(getDateTime(rs, "START_TIME"));
+            } else {
+                summary.setNextBookingId(rs.getLong("BOOKING_ID"));
+                summary.setNextBookerId(rs.getLong("USER_ID"));
+                summary.setNextStartTime(getDateTime(rs, "START_TIME"));
+            }
+        });
+        return summaries;
+    }
+
+    /**
+     * Updates the item's summary computed at {@code now} or inserts it when it's missing. An update keeps
+     * the stored last or next booking if it is closer to now than the computed one.
+     *
+     * @return false if the summary was inserted
+     * @throws DuplicateKeyException if the summary was inserted concurrently
+     */
+    public boolean save(ItemBookingSummary summary, LocalDateTime now) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", now)
+                .addValue("itemId", summary.getItemId())
+                .addValue("lastBookingId", summary.getLastBookingId())
+                .addValue("lastBookerId", summary.getLastBookerId())
+                .addValue("lastStartTime", summary.getLastStartTime())
+                .addValue("nextBookingId", summary.getNextBookingId())
+                .addValue("nextBookerId", summary.getNextBookerId())
+                .addValue("nextStartTime", summary.getNextStartTime());
+        if (jdbcTemplate.update(UPDATE_QUERY, params) == 0) {
+            jdbcTemplate.update(INSERT_QUERY, params);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Makes the approved booking the item's last or next one if it is closer to now than the stored one.
+     * Items without a stored summary are left to be computed when they are read.
+     */
+    public void approve(Long itemId, Long bookingId, Long bookerId, LocalDateTime startTime, LocalDateTime now) {
+        if (startTime.isEqual(now)) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("itemId", itemId)
+                .addValue("bookingId", bookingId)
+                .addValue("bookerId", bookerId)
+                .addValue("startTime", startTime);
+        jdbcTemplate.update(startTime.isBefore(now) ? UPDATE_LAST_QUERY : UPDATE_NEXT_QUERY, params);
+    }
+
+    private static Long getLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static LocalDateTime getDateTime(ResultSet rs, String column) throws SQLException {
+        Timestamp value = rs.getTimestamp(column);
+        return value == null ? null : value.toLocalDateTime();
+    }
+}
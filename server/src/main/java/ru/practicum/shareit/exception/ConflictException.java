@@ -0,0 +1,10 @@
+package ru.practicum.shareit.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException() {
+    }
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -10,6 +12,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -17,6 +20,8 @@ import java.util.Map;
 @Slf4j
 public class ErrorHandler {
 
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleNotFoundException(final NotFoundException e) {
@@ -33,14 +38,38 @@ public class ErrorHandler {
         return new ErrorResponse(message);
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleConflictException(final ConflictException e) {
+        String message = e.getMessage();
+        log.info(message);
+        return new ErrorResponse(message);
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.CONFLICT)
     public ErrorResponse handleDataIntegrityViolationException(final DataIntegrityViolationException e) {
-        String message = e.getCause().getCause().getMessage();
+        String message = getMessage(e);
         log.info(message);
         return new ErrorResponse(message);
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLockingFailureException(final OptimisticLockingFailureException e) {
+        String message = "Resource was changed concurrently, retry the request";
+        log.info(message);
+        return new ErrorResponse(message);
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleServiceUnavailableException(final ServiceUnavailableException e) {
+        String message = e.getMessage();
+        log.warn(message);
+        return new ErrorResponse(message);
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleIllegalArgumentException(final IllegalArgumentException e) {
@@ -79,4 +108,23 @@ public class ErrorHandler {
         log.error(errorMsg, e);
         return new ErrorResponse(e);
     }
+
+    /**
+     * Describes the violated constraint. The driver's exception isn't always wrapped by Hibernate,
+     * so the message is taken from the most specific cause whatever the depth.
+     */
+    public static String getMessage(DataIntegrityViolationException e) {
+        return isExclusionViolation(e)
+                ? "Booking period overlaps an approved booking of the same item"
+                : NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+    }
+
+    private static boolean isExclusionViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -1,16 +1,25 @@
 package ru.practicum.shareit.item.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 @RestController
 @Slf4j
@@ -18,23 +27,39 @@ import java.util.List;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, ObjectMapper objectMapper) {
         this.itemService = itemService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
     public List<ItemDto> getAllByUser(@RequestHeader("X-Sharer-User-Id") long userId,
                                       @RequestParam(value = "from") int offset,
-                                      @RequestParam(value = "size") int limit) {
+                                      @RequestParam(value = "size") int limit,
+                                      @RequestParam(value = "after", required = false) Long after) {
         log.info("Request received: GET /items for user id= {}", userId);
-        Pageable pageable = PageRequest.of(offset / limit, limit, Sort.by(Sort.Direction.ASC, "id"));
-        List<ItemDto> items = itemService.getAllByOwner(userId, pageable);
+        Pageable pageable = PageRequest.of(after == null ? offset / limit : 0, limit,
+                Sort.by(Sort.Direction.ASC, "id"));
+        List<ItemDto> items = itemService.getAllByOwner(userId, after, pageable);
         log.info("Request GET /items processed: {}", items);
         return items;
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllByUser(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(value = "from") int offset,
+            @RequestParam(value = "size") int limit,
+            @RequestParam(value = "after", required = false) Long after) {
+        log.info("Request received: GET /items as stream for user id= {}", userId);
+        Pageable pageable = PageRequest.of(after == null ? offset / limit : 0, limit,
+                Sort.by(Sort.Direction.ASC, "id"));
+        return toNdjson(action -> itemService.streamAllByOwner(userId, after, pageable, action));
+    }
+
     @GetMapping("/{itemId}")
     public ItemDto getItem(@PathVariable Long itemId,
                            @RequestHeader("X-Sharer-User-Id") long userId) {
@@ -75,14 +100,56 @@ public class ItemController {
     @GetMapping("/search")
     public List<ItemDto> search(@RequestParam String text,
                                 @RequestParam(value = "from") int offset,
-                                @RequestParam(value = "size") int limit) {
+                                @RequestParam(value = "size") int limit,
+                                @RequestParam(value = "ranked", defaultValue = "false") boolean ranked,
+                                @RequestParam(value = "after", required = false) Long after) {
         log.debug("Request received: GET /items/search");
-        Pageable pageable = PageRequest.of(offset / limit, limit);
-        List<ItemDto> searchedItems = itemService.getSearcherItems(text, pageable);
+        Pageable pageable = PageRequest.of(after == null ? offset / limit : 0, limit);
+        List<ItemDto> searchedItems = itemService.getSearcherItems(text, ranked, after, pageable);
         log.debug("Request GET /items/search processed: searchedItems: {}", searchedItems);
         return searchedItems;
     }
 
+    @PostMapping("/search/batch")
+    public List<List<ItemDto>> searchBatch(@RequestBody List<ItemSearchRequestDto> requests) {
+        log.debug("Request received: POST /items/search/batch: {}", requests);
+        List<List<ItemDto>> searchedItems = itemService.getSearcherItems(requests);
+        log.debug("Request POST /items/search/batch processed: searchedItems: {}", searchedItems);
+        return searchedItems;
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearch(
+            @RequestParam String text,
+            @RequestParam(value = "from") int offset,
+            @RequestParam(value = "size") int limit,
+            @RequestParam(value = "after", required = false) Long after) {
+        log.debug("Request received: GET /items/search as stream");
+        Pageable pageable = PageRequest.of(after == null ? offset / limit : 0, limit);
+        return toNdjson(action -> itemService.streamSearcherItems(text, after, pageable, action));
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestParam String prefix,
+                                @RequestParam(value = "size", defaultValue = "10") int limit) {
+        log.debug("Request received: GET /items/suggest");
+        List<String> suggestions = itemService.getSuggestions(prefix, limit);
+        log.debug("Request GET /items/suggest processed: suggestions: {}", suggestions);
+        return suggestions;
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(
+            @PathVariable Long itemId,
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.debug("Request received: GET /items/id={}/availability from {} to {}", itemId, from, to);
+        ItemAvailabilityDto availability = itemService.getAvailability(itemId, from, to);
+        log.debug("Request GET /items/id/availability processed: {}", availability);
+        return availability;
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto create(@RequestHeader("X-Sharer-User-Id") long userId,
                              @PathVariable Long itemId,
@@ -92,4 +159,18 @@ public class ItemController {
         log.info("Request POST /items/{itemId}/comment processed: comment={} is created", createdComment);
         return createdComment;
     }
+
+    private ResponseEntity<StreamingResponseBody> toNdjson(Consumer<Consumer<ItemDto>> items) {
+        StreamingResponseBody body = outputStream -> items.accept(itemDto -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(itemDto));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 }
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class ItemAvailabilityDto {
+
+    private Long itemId;
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private List<SlotDto> slots;
+
+    @Data
+    @Builder
+    public static class SlotDto {
+
+        private LocalDateTime start;
+
+        private LocalDateTime end;
+
+        private boolean free;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ItemSearchRequestDto {
+
+    private String text;
+
+    @Builder.Default
+    private int from = 0;
+
+    @Builder.Default
+    private int size = 10;
+
+    private boolean ranked;
+
+    private Long after;
+}
@@ -4,6 +4,7 @@ import org.mapstruct.*;
 import org.mapstruct.factory.Mappers;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.summary.ItemBookingSummary;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemUpdateDto;
@@ -15,8 +16,6 @@ import ru.practicum.shareit.user.model.User;
 import java.util.*;
 
 import static org.mapstruct.MappingConstants.ComponentModel.SPRING;
-import static ru.practicum.shareit.item.service.ItemServiceImpl.getLastBooking;
-import static ru.practicum.shareit.item.service.ItemServiceImpl.getNextBooking;
 
 @Component
 @Mapper(componentModel = SPRING,
@@ -45,7 +44,7 @@ public interface ItemMapper {
 
     default List<ItemDto> toFullItemDtoList(
             List<Item> userItems,
-            Map<Long, List<Booking>> itemBookingsMap,
+            Map<Long, ItemBookingSummary> itemBookingSummaries,
             Map<Long, List<Comment>> itemsCommentsMap) {
         if (userItems == null) {
             return null;
@@ -56,13 +55,24 @@ public interface ItemMapper {
                 itemDto.setComments(
                         commentMapper.toListCommentDto(
                                 itemsCommentsMap.getOrDefault(id, Collections.emptyList())));
-                itemDto.setLastBooking(
-                        map(getLastBooking(itemBookingsMap.getOrDefault(id, Collections.emptyList()))));
-                itemDto.setNextBooking(
-                        map(getNextBooking(itemBookingsMap.getOrDefault(id, Collections.emptyList()))));
+                setBookings(itemDto, itemBookingSummaries.get(id));
                 list.add(itemDto);
             });
             return list;
         }
     }
+
+    default void setBookings(ItemDto itemDto, ItemBookingSummary summary) {
+        if (summary != null) {
+            itemDto.setLastBooking(toBookingDto(summary.getLastBookingId(), summary.getLastBookerId()));
+            itemDto.setNextBooking(toBookingDto(summary.getNextBookingId(), summary.getNextBookerId()));
+        }
+    }
+
+    private static ItemDto.BookingDto toBookingDto(Long bookingId, Long bookerId) {
+        return bookingId == null ? null : ItemDto.BookingDto.builder()
+                .id(bookingId)
+                .bookerId(bookerId)
+                .build();
+    }
 }
@@ -3,28 +3,73 @@ package ru.practicum.shareit.item.repository;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+    String SEARCH_QUERY = "SELECT i FROM Item AS i " +
+            "WHERE (LOWER(i.name) LIKE %:text1% " +
+            "OR LOWER(i.description) LIKE %:text2%) " +
+            "AND i.available = :available " +
+            "AND i.id > :after " +
+            "ORDER BY i.id";
+
+    String FULL_TEXT_SEARCH_QUERY = "SELECT * FROM ITEMS " +
+            "WHERE SEARCH_VECTOR @@ TO_TSQUERY('simple', :query) " +
+            "AND AVAILABLE = TRUE " +
+            "AND ITEM_ID > :after " +
+            "ORDER BY ITEM_ID";
+
+    String STREAM_FETCH_SIZE = "100";
+
     List<Item> findAllByOwnerId(@Param("userId") Long userId, Pageable pageable);
 
-    @Query("SELECT i FROM Item AS i " +
-            "WHERE LOWER(i.name) LIKE %:text1% " +
-            "OR LOWER(i.description) LIKE %:text2% " +
-            "AND i.available = :available")
+    List<Item> findAllByOwnerIdAndIdGreaterThan(Long userId, Long itemId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<Item> streamAllByOwnerIdAndIdGreaterThan(Long userId, Long itemId, Pageable pageable);
+
+    @Query(SEARCH_QUERY)
     List<Item> findAllAvailableBySearch(
             @Param("text1") String text1,
             @Param("text2") String text2,
             @Param("available") Boolean available,
+            @Param("after") Long after,
+            Pageable pageable);
+
+    @Query(SEARCH_QUERY)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<Item> streamAllAvailableBySearch(
+            @Param("text1") String text1,
+            @Param("text2") String text2,
+            @Param("available") Boolean available,
+            @Param("after") Long after,
+            Pageable pageable);
+
+    @Query(value = FULL_TEXT_SEARCH_QUERY, nativeQuery = true)
+    List<Item> findAllAvailableByFullTextSearch(
+            @Param("query") String query,
+            @Param("after") Long after,
+            Pageable pageable);
+
+    @Query(value = FULL_TEXT_SEARCH_QUERY, nativeQuery = true)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    Stream<Item> streamAllAvailableByFullTextSearch(
+            @Param("query") String query,
+            @Param("after") Long after,
             Pageable pageable);
 
-    void deleteAllByOwnerId(Long userId);
+    List<Item> deleteAllByOwnerId(Long userId);
 
     List<Item> findAllByRequestIdIn(List<Long> requestsId);
 }
@@ -0,0 +1,129 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded LRU cache of search results with a time to live. An entry is dropped as soon as an item
+ * it contains changes or a changed item starts matching its text.
+ */
+@Component
+public class ItemSearchCache {
+
+    private final ItemSearchProperties.Cache properties;
+    private final LinkedHashMap<Key, Entry> entries;
+    private long evictions;
+
+    @Autowired
+    public ItemSearchCache(ItemSearchProperties searchProperties) {
+        this.properties = searchProperties.getCache();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > properties.getMaxSize();
+            }
+        };
+    }
+
+    public synchronized Optional<List<ItemDto>> get(String text, boolean ranked, long after, long offset, int limit) {
+        Key key = new Key(text.toLowerCase(), ranked, after, offset, limit);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.expiresAt - System.nanoTime() < 0) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry.items);
+    }
+
+    /**
+     * Returns the eviction count to pass to {@link #put}; take it before searching the results to cache.
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    /**
+     * Caches the results unless an item changed since {@code evictionsBefore} was taken, as they may
+     * have been searched before the change.
+     */
+    public synchronized void put(String text, boolean ranked, long after, long offset, int limit,
+                                 List<ItemDto> items, long evictionsBefore) {
+        if (evictions != evictionsBefore || properties.getMaxSize() <= 0) {
+            return;
+        }
+        entries.put(new Key(text.toLowerCase(), ranked, after, offset, limit),
+                new Entry(items, System.nanoTime() + properties.getTtl().toNanos()));
+    }
+
+    /**
+     * Drops every page of the texts whose results contain the item or, if it is available, whose text it
+     * matches. Adding or removing a row shifts all the later pages of a text, not only the row's own page,
+     * so callers pass the item as it was before the change and as it is after it.
+     */
+    public synchronized void evict(Item item) {
+        evictions++;
+        String itemText = Boolean.TRUE.equals(item.getAvailable())
+                ? (item.getName() + " " + item.getDescription()).toLowerCase()
+                : null;
+        Set<String> texts = entries.entrySet().stream()
+                .filter(entry -> entry.getValue().itemIds.contains(item.getId())
+                        || itemText != null && entry.getKey().matches(itemText))
+                .map(entry -> entry.getKey().text)
+                .collect(Collectors.toSet());
+        entries.keySet().removeIf(key -> texts.contains(key.text));
+    }
+
+    /**
+     * Drops the pages containing the items whose results changed in place, such as by a new comment.
+     */
+    public synchronized void evict(Collection<Long> itemIds) {
+        evictions++;
+        entries.values().removeIf(entry -> itemIds.stream().anyMatch(entry.itemIds::contains));
+    }
+
+    @EqualsAndHashCode
+    private static class Key {
+
+        private final String text;
+        private final boolean ranked;
+        private final long after;
+        private final long offset;
+        private final int limit;
+
+        Key(String text, boolean ranked, long after, long offset, int limit) {
+            this.text = text;
+            this.ranked = ranked;
+            this.after = after;
+            this.offset = offset;
+            this.limit = limit;
+        }
+
+        boolean matches(String itemText) {
+            return ItemSearchIndex.tokenize(text).stream().allMatch(itemText::contains);
+        }
+    }
+
+    private static class Entry {
+
+        private final List<ItemDto> items;
+        private final Set<Long> itemIds;
+        private final long expiresAt;
+
+        Entry(List<ItemDto> items, long expiresAt) {
+            this.items = Collections.unmodifiableList(items);
+            this.itemIds = items.stream()
+                    .map(ItemDto::getId)
+                    .collect(Collectors.toSet());
+            this.expiresAt = expiresAt;
+        }
+    }
+}
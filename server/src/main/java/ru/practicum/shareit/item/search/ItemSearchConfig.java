@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ItemSearchConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService itemSearchExecutor(ItemSearchProperties searchProperties) {
+        return Executors.newFixedThreadPool(searchProperties.getBatchParallelism());
+    }
+}
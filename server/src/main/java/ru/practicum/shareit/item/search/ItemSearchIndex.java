@@ -0,0 +1,416 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index of available items: every term of an item's name and description
+ * points to the sorted ids of the items containing it together with the term weight in the item,
+ * and every part of a term up to three characters long points to the terms containing it, so that a part
+ * of a word is found without scanning the whole dictionary.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    private static final int GRAM_LENGTH = 3;
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double RECENCY_WEIGHT = 0.5;
+    private static final Comparator<ScoredItem> BY_SCORE = Comparator
+            .comparingDouble((ScoredItem scoredItem) -> scoredItem.score)
+            .thenComparingLong(scoredItem -> scoredItem.id);
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ItemRepository itemRepository;
+    private final NavigableMap<String, NavigableMap<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> itemTerms = new HashMap<>();
+    private final Map<String, Set<String>> gramTerms = new HashMap<>();
+    private final NavigableMap<String, ItemName> names = new TreeMap<>();
+    private final Map<Long, String> itemNames = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public ItemSearchIndex(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            itemTerms.clear();
+            gramTerms.clear();
+            names.clear();
+            itemNames.clear();
+            Page<Item> page = itemRepository.findAll(
+                    PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by(Sort.Direction.ASC, "id")));
+            page.forEach(this::addItem);
+            while (page.hasNext()) {
+                page = itemRepository.findAll(page.nextPageable());
+                page.forEach(this::addItem);
+            }
+            log.info("Item search index rebuilt: {} items, {} terms", itemTerms.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            removeItem(item.getId());
+            addItem(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Collection<Long> itemIds) {
+        lock.writeLock().lock();
+        try {
+            itemIds.forEach(this::removeItem);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} ascending ids greater than {@code afterId} of the items having every query term
+     * inside one of their terms. For a single-term query this is exactly the set matched by a case-insensitive
+     * substring search. The postings of the terms matching the rarest query term are merged in id order and
+     * the merge stops once the page is filled, so only the ids up to the page are visited.
+     */
+    public List<Long> search(String text, long afterId, int limit) {
+        List<String> queryTerms = tokenize(text);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<List<NavigableMap<Long, Integer>>> matchedPostings = new ArrayList<>(queryTerms.size());
+            for (String queryTerm : queryTerms) {
+                List<NavigableMap<Long, Integer>> matched = new ArrayList<>();
+                for (String term : candidateTerms(queryTerm)) {
+                    if (term.contains(queryTerm)) {
+                        matched.add(postings.get(term));
+                    }
+                }
+                if (matched.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                matchedPostings.add(matched);
+            }
+            matchedPostings.sort(Comparator.comparingLong(ItemSearchIndex::countIds));
+            List<List<NavigableMap<Long, Integer>>> otherPostings = matchedPostings.subList(1, matchedPostings.size());
+            List<Long> ids = new ArrayList<>(Math.min(limit, 16));
+            MergedIds mergedIds = new MergedIds(matchedPostings.get(0), afterId);
+            while (mergedIds.hasNext() && ids.size() < limit) {
+                Long id = mergedIds.next();
+                if (otherPostings.stream().allMatch(matched -> containsId(matched, id))) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns at most {@code limit} ids of the matched items, most relevant first. Name hits weigh more
+     * than description hits, repeated terms add up and newer items get a boost. Only the best
+     * {@code limit} items are kept while scoring, so the cost is O(n log limit) for n matched items.
+     */
+    public List<Long> searchRanked(String text, int limit) {
+        Map<Long, Integer> matches = match(text);
+        if (matches.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        long newestId = Collections.max(matches.keySet());
+        PriorityQueue<ScoredItem> top = new PriorityQueue<>(Math.min(limit, matches.size()), BY_SCORE);
+        matches.forEach((id, weight) -> {
+            ScoredItem scoredItem = new ScoredItem(id, weight + RECENCY_WEIGHT * id / newestId);
+            if (top.size() < limit) {
+                top.add(scoredItem);
+            } else if (BY_SCORE.compare(scoredItem, top.peek()) > 0) {
+                top.poll();
+                top.add(scoredItem);
+            }
+        });
+        Long[] ranked = new Long[top.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = top.poll().id;
+        }
+        return Arrays.asList(ranked);
+    }
+
+    /**
+     * Returns up to {@code limit} distinct names of available items starting with the prefix, in alphabetical order.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String key = prefix.toLowerCase();
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<String> suggestions = new ArrayList<>(Math.min(limit, 16));
+            for (Map.Entry<String, ItemName> entry : names.tailMap(key, true).entrySet()) {
+                if (!entry.getKey().startsWith(key) || suggestions.size() == limit) {
+                    break;
+                }
+                suggestions.add(entry.getValue().name);
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static boolean isSingleTerm(String text) {
+        return !text.isEmpty() && !TERM_SEPARATOR.matcher(text).find();
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String term : TERM_SEPARATOR.split(text.toLowerCase())) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private Map<Long, Integer> match(String text) {
+        List<String> queryTerms = tokenize(text);
+        if (queryTerms.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> result = null;
+            for (String queryTerm : queryTerms) {
+                Map<Long, Integer> matched = new HashMap<>();
+                for (String term : candidateTerms(queryTerm)) {
+                    if (term.contains(queryTerm)) {
+                        postings.get(term).forEach((id, weight) -> matched.merge(id, weight, Integer::sum));
+                    }
+                }
+                if (result == null) {
+                    result = matched;
+                } else {
+                    Map<Long, Integer> matchedBefore = result;
+                    result = new HashMap<>();
+                    for (Map.Entry<Long, Integer> entry : matched.entrySet()) {
+                        Integer weightBefore = matchedBefore.get(entry.getKey());
+                        if (weightBefore != null) {
+                            result.put(entry.getKey(), weightBefore + entry.getValue());
+                        }
+                    }
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Collection<String> candidateTerms(String queryTerm) {
+        if (queryTerm.length() <= GRAM_LENGTH) {
+            return gramTerms.getOrDefault(queryTerm, Collections.emptySet());
+        }
+        List<Set<String>> gramPostings = new ArrayList<>();
+        for (String gram : grams(queryTerm, GRAM_LENGTH)) {
+            Set<String> terms = gramTerms.get(gram);
+            if (terms == null) {
+                return Collections.emptySet();
+            }
+            gramPostings.add(terms);
+        }
+        gramPostings.sort(Comparator.comparingInt(Set::size));
+        Set<String> candidates = new HashSet<>(gramPostings.get(0));
+        for (int i = 1; i < gramPostings.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(gramPostings.get(i));
+        }
+        return candidates;
+    }
+
+    private static Set<String> grams(String term, int length) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + length <= term.length(); i++) {
+            grams.add(term.substring(i, i + length));
+        }
+        return grams;
+    }
+
+    /**
+     * Grams of every length up to {@link #GRAM_LENGTH}, so a query term that short is looked up directly.
+     */
+    private static Set<String> indexedGrams(String term) {
+        Set<String> grams = new HashSet<>();
+        for (int length = 1; length <= GRAM_LENGTH; length++) {
+            grams.addAll(grams(term, length));
+        }
+        return grams;
+    }
+
+    private static boolean containsId(List<NavigableMap<Long, Integer>> matched, Long id) {
+        for (NavigableMap<Long, Integer> ids : matched) {
+            if (ids.containsKey(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long countIds(List<NavigableMap<Long, Integer>> matched) {
+        long count = 0;
+        for (NavigableMap<Long, Integer> ids : matched) {
+            count += ids.size();
+        }
+        return count;
+    }
+
+    private void addItem(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(item.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(item.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, this::addTerm).put(item.getId(), weight));
+        itemTerms.put(item.getId(), new HashSet<>(weights.keySet()));
+        String name = item.getName().trim();
+        names.computeIfAbsent(name.toLowerCase(), key -> new ItemName(name)).count++;
+        itemNames.put(item.getId(), name.toLowerCase());
+    }
+
+    private void removeItem(Long itemId) {
+        String name = itemNames.remove(itemId);
+        if (name != null && --names.get(name).count == 0) {
+            names.remove(name);
+        }
+        Set<String> terms = itemTerms.remove(itemId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            NavigableMap<Long, Integer> ids = postings.get(term);
+            ids.remove(itemId);
+            if (ids.isEmpty()) {
+                postings.remove(term);
+                removeTerm(term);
+            }
+        }
+    }
+
+    private NavigableMap<Long, Integer> addTerm(String term) {
+        for (String gram : indexedGrams(term)) {
+            gramTerms.computeIfAbsent(gram, key -> new HashSet<>()).add(term);
+        }
+        return new TreeMap<>();
+    }
+
+    private void removeTerm(String term) {
+        for (String gram : indexedGrams(term)) {
+            Set<String> terms = gramTerms.get(gram);
+            terms.remove(term);
+            if (terms.isEmpty()) {
+                gramTerms.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Ascending distinct ids of several postings, merged lazily through a heap of their heads.
+     */
+    private static class MergedIds implements Iterator<Long> {
+
+        private final PriorityQueue<PostingCursor> cursors;
+
+        MergedIds(List<NavigableMap<Long, Integer>> postings, long afterId) {
+            cursors = new PriorityQueue<>(postings.size(),
+                    Comparator.comparingLong((PostingCursor cursor) -> cursor.id));
+            for (NavigableMap<Long, Integer> ids : postings) {
+                advance(new PostingCursor(ids.navigableKeySet().tailSet(afterId, false).iterator()));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !cursors.isEmpty();
+        }
+
+        @Override
+        public Long next() {
+            if (cursors.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            long id = cursors.peek().id;
+            while (!cursors.isEmpty() && cursors.peek().id == id) {
+                advance(cursors.poll());
+            }
+            return id;
+        }
+
+        private void advance(PostingCursor cursor) {
+            if (cursor.ids.hasNext()) {
+                cursor.id = cursor.ids.next();
+                cursors.add(cursor);
+            }
+        }
+    }
+
+    private static class PostingCursor {
+
+        private final Iterator<Long> ids;
+        private long id;
+
+        PostingCursor(Iterator<Long> ids) {
+            this.ids = ids;
+        }
+    }
+
+    private static class ScoredItem {
+
+        private final long id;
+        private final double score;
+
+        ScoredItem(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+
+    private static class ItemName {
+
+        private final String name;
+        private int count;
+
+        ItemName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.search")
+public class ItemSearchProperties {
+
+    /**
+     * Where /items/search looks for matches: the in-memory index or the database.
+     */
+    private ItemSearchMode mode = ItemSearchMode.INDEX;
+
+    /**
+     * Use the PostgreSQL tsvector column instead of the LIKE query in DATABASE mode.
+     */
+    private boolean fullText = false;
+
+    /**
+     * How many queries of one /items/search/batch request are searched at the same time.
+     */
+    private int batchParallelism = 4;
+
+    private final Cache cache = new Cache();
+
+    @Getter
+    @Setter
+    public static class Cache {
+
+        /**
+         * How many (text, from, size) results are kept; the least recently used one is evicted first.
+         */
+        private int maxSize = 1000;
+
+        /**
+         * How long a result is served from the cache at most.
+         */
+        private Duration ttl = Duration.ofMinutes(1);
+    }
+}
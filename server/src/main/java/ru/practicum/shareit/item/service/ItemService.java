@@ -3,12 +3,16 @@ package ru.practicum.shareit.item.service;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.item.dto.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
 
 
-    List<ItemDto> getAllByOwner(Long userId, Pageable pageable);
+    List<ItemDto> getAllByOwner(Long userId, Long after, Pageable pageable);
+
+    void streamAllByOwner(Long userId, Long after, Pageable pageable, Consumer<ItemDto> action);
 
     ItemDto getItem(Long itemId, long userId);
 
@@ -18,7 +22,15 @@ public interface ItemService {
 
     void delete(Long id, Long ownerId);
 
-    List<ItemDto> getSearcherItems(String text, Pageable pageable);
+    List<ItemDto> getSearcherItems(String text, boolean ranked, Long after, Pageable pageable);
+
+    List<List<ItemDto>> getSearcherItems(List<ItemSearchRequestDto> requests);
+
+    void streamSearcherItems(String text, Long after, Pageable pageable, Consumer<ItemDto> action);
+
+    List<String> getSuggestions(String prefix, int limit);
+
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDate from, LocalDate to);
 
     CommentDto create(CommentCreateDto commentDto, long userId, Long itemId);
 }
@@ -1,12 +1,17 @@
 package ru.practicum.shareit.item.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.availability.BookingAvailability;
+import ru.practicum.shareit.booking.availability.ItemCalendar;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaries;
+import ru.practicum.shareit.booking.summary.ItemBookingSummary;
 import ru.practicum.shareit.exception.NotAccessException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.*;
@@ -16,59 +21,104 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchMode;
+import ru.practicum.shareit.item.search.ItemSearchProperties;
+import ru.practicum.shareit.outbox.OutboxEventType;
+import ru.practicum.shareit.outbox.OutboxEvents;
+import ru.practicum.shareit.transaction.AfterCommit;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.lang.Boolean.TRUE;
 
 @Service
 public class ItemServiceImpl implements ItemService {
 
+    private static final int STREAM_CHUNK_SIZE = 100;
+    private static final int MAX_CALENDAR_DAYS = 366;
+    private static final int MAX_SUGGESTIONS = 100;
+
     public ItemRepository itemRepository;
     private UserRepository userRepository;
     private BookingRepository bookingRepository;
     private CommentRepository commentRepository;
     private ItemMapper itemMapper;
     private CommentMapper commentMapper;
+    private ItemSearchIndex itemSearchIndex;
+    private ItemSearchProperties searchProperties;
+    private ItemSearchCache itemSearchCache;
+    private EntityManager entityManager;
+    private Executor itemSearchExecutor;
+    private BookingAvailability bookingAvailability;
+    private ItemCalendar itemCalendar;
+    private ItemBookingSummaries itemBookingSummaries;
+    private OutboxEvents outboxEvents;
 
     @Autowired
-    public ItemServiceImpl(ItemRepository itemRepository, UserRepository userRepository, BookingRepository bookingRepository, CommentRepository commentRepository, ItemMapper itemMapper, CommentMapper commentMapper) {
+    public ItemServiceImpl(ItemRepository itemRepository, UserRepository userRepository, BookingRepository bookingRepository, CommentRepository commentRepository, ItemMapper itemMapper, CommentMapper commentMapper, ItemSearchIndex itemSearchIndex, ItemSearchProperties searchProperties, ItemSearchCache itemSearchCache, EntityManager entityManager, @Qualifier("itemSearchExecutor") Executor itemSearchExecutor,
+                           BookingAvailability bookingAvailability, ItemCalendar itemCalendar,
+                           ItemBookingSummaries itemBookingSummaries,
+                           OutboxEvents outboxEvents) {
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
         this.commentRepository = commentRepository;
         this.itemMapper = itemMapper;
         this.commentMapper = commentMapper;
+        this.itemSearchIndex = itemSearchIndex;
+        this.searchProperties = searchProperties;
+        this.itemSearchCache = itemSearchCache;
+        this.entityManager = entityManager;
+        this.itemSearchExecutor = itemSearchExecutor;
+        this.bookingAvailability = bookingAvailability;
+        this.itemCalendar = itemCalendar;
+        this.itemBookingSummaries = itemBookingSummaries;
+        this.outboxEvents = outboxEvents;
     }
 
     @Override
-    public List<ItemDto> getAllByOwner(Long userId, Pageable pageable) {
+    public List<ItemDto> getAllByOwner(Long userId, Long after, Pageable pageable) {
         if (!userRepository.existsById(userId)) {
             throw new NotFoundException(String.format("User id=%d not found", userId));
         }
-        List<Item> userItems = itemRepository.findAllByOwnerId(userId, pageable);
-
-        List<Long> itemIds = userItems.stream()
-                .map(Item::getId)
-                .collect(Collectors.toList());
-
-        List<Booking> itemsBookings = bookingRepository
-                .findAllByItemIdInAndStatusIs(itemIds, BookingStatus.APPROVED);
-        Map<Long, List<Booking>> itemBookingsMap = itemsBookings.stream()
-                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
-
-        List<Comment> itemsComments = commentRepository
-                .findAllByItemIdIn(itemIds, Sort.by("created").descending());
-        Map<Long, List<Comment>> itemsCommentsMap = itemsComments.stream()
-                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+        List<Item> userItems = after == null
+                ? itemRepository.findAllByOwnerId(userId, pageable)
+                : itemRepository.findAllByOwnerIdAndIdGreaterThan(userId, after, pageable);
+        return toFullItemDtoList(userItems, true);
+    }
 
-        return itemMapper.toFullItemDtoList(userItems, itemBookingsMap, itemsCommentsMap);
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllByOwner(Long userId, Long after, Pageable pageable, Consumer<ItemDto> action) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException(String.format("User id=%d not found", userId));
+        }
+        try (Stream<Item> userItems = itemRepository
+                .streamAllByOwnerIdAndIdGreaterThan(userId, after == null ? 0 : after, pageable)) {
+            forEachChunk(userItems.iterator(), chunk -> toFullItemDtoList(chunk, true).forEach(action));
+        }
     }
 
     @Override
@@ -76,14 +126,8 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException(String.format("Item id=%d not found", itemId)));
         ItemDto itemDto = itemMapper.toItemDto(item);
-        List<Booking> itemBookings = bookingRepository
-                .findAllByItemIdAndStatusIs(
-                        itemId, BookingStatus.APPROVED, Sort.by("startTime").ascending());
         if (item.getOwner().getId().equals(userId)) {
-            itemDto.setNextBooking(
-                    itemMapper.map(getNextBooking(itemBookings)));
-            itemDto.setLastBooking(
-                    itemMapper.map(getLastBooking(itemBookings)));
+            itemMapper.setBookings(itemDto, itemBookingSummaries.get(itemId));
         }
         itemDto.setComments(commentMapper
                 .toListCommentDto(commentRepository.findAllByItemId(itemId, Sort.by("created").descending())));
@@ -94,11 +138,14 @@ public class ItemServiceImpl implements ItemService {
     public ItemDto create(ItemCreateDto itemCreateDto, Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException(String.format("User id=%d not found", userId)));
-        Item item = itemMapper.toItem(itemCreateDto, user);
-        return itemMapper.toItemDto(itemRepository.save(item));
+        Item item = itemRepository.save(itemMapper.toItem(itemCreateDto, user));
+        itemSearchIndex.index(item);
+        itemSearchCache.evict(item);
+        return itemMapper.toItemDto(item);
     }
 
     @Override
+    @Transactional
     public ItemDto update(Long itemId, Long ownerId, ItemUpdateDto itemUpdateDto) {
         User owner = userRepository.findById(ownerId)
                 .orElseThrow(() -> new NotFoundException("Owner not found"));
@@ -107,11 +154,25 @@ public class ItemServiceImpl implements ItemService {
         if (!item.getOwner().equals(owner)) {
             throw new NotAccessException("Only item's owner can update data");
         }
+        Item previousItem = Item.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .build();
         Item updatedItem = itemRepository.save(itemMapper.update(itemUpdateDto, item));
-        return itemMapper.toItemDto(updatedItem);
+        ItemDto itemDto = itemMapper.toItemDto(updatedItem);
+        outboxEvents.append(OutboxEventType.ITEM_UPDATED, itemId, ownerId, itemDto);
+        AfterCommit.run(() -> {
+            itemSearchIndex.index(updatedItem);
+            itemSearchCache.evict(previousItem);
+            itemSearchCache.evict(updatedItem);
+        });
+        return itemDto;
     }
 
     @Override
+    @Transactional
     public void delete(Long id, Long ownerId) {
         if (!userRepository.existsById(ownerId)) {
             throw new NotFoundException(String.format("User id=%d not found", ownerId));
@@ -122,27 +183,128 @@ public class ItemServiceImpl implements ItemService {
             throw new NotAccessException("Only item's owner can delete data");
         }
         itemRepository.deleteById(id);
+        outboxEvents.append(OutboxEventType.ITEM_DELETED, id, ownerId, itemMapper.toItemDto(deletingItem));
+        AfterCommit.run(() -> {
+            itemSearchIndex.remove(List.of(id));
+            itemSearchCache.evict(deletingItem);
+            bookingAvailability.evict(List.of(id));
+            itemCalendar.evict(List.of(id));
+        });
     }
 
     @Override
-    public List<ItemDto> getSearcherItems(String text, Pageable pageable) {
+    public List<ItemDto> getSearcherItems(String text, boolean ranked, Long after, Pageable pageable) {
+        if (ranked && after != null) {
+            throw new IllegalArgumentException("Ranked search can't be paged by item id");
+        }
         if (text.isEmpty()) {
             return Collections.emptyList();
         }
-        List<Item> items = itemRepository.findAllAvailableBySearch(
-                        text.toLowerCase(),
-                        text.toLowerCase(),
-                        TRUE,
-                        pageable);
-        List<Long> itemIds = items.stream()
+        long afterId = after == null ? 0 : after;
+        long evictionsBefore = itemSearchCache.evictions();
+        Optional<List<ItemDto>> cachedItems =
+                itemSearchCache.get(text, ranked, afterId, pageable.getOffset(), pageable.getPageSize());
+        if (cachedItems.isPresent()) {
+            return cachedItems.get();
+        }
+        List<ItemDto> searchedItems = toFullItemDtoList(searchItems(text, ranked, afterId, pageable), false);
+        itemSearchCache.put(text, ranked, afterId, pageable.getOffset(), pageable.getPageSize(), searchedItems,
+                evictionsBefore);
+        return searchedItems;
+    }
+
+    /**
+     * Runs the uncached queries in parallel and loads the comments of all found items with one query.
+     */
+    @Override
+    public List<List<ItemDto>> getSearcherItems(List<ItemSearchRequestDto> requests) {
+        List<List<ItemDto>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+        Map<Integer, CompletableFuture<List<Item>>> searches = new HashMap<>();
+        long evictionsBefore = itemSearchCache.evictions();
+        for (int i = 0; i < requests.size(); i++) {
+            ItemSearchRequestDto request = requests.get(i);
+            if (request.isRanked() && request.getAfter() != null) {
+                throw new IllegalArgumentException("Ranked search can't be paged by item id");
+            }
+            if (request.getText() == null || request.getText().isEmpty()) {
+                results.set(i, Collections.emptyList());
+                continue;
+            }
+            long afterId = request.getAfter() == null ? 0 : request.getAfter();
+            Pageable pageable = toPageable(request);
+            Optional<List<ItemDto>> cachedItems = itemSearchCache.get(request.getText(), request.isRanked(),
+                    afterId, pageable.getOffset(), pageable.getPageSize());
+            if (cachedItems.isPresent()) {
+                results.set(i, cachedItems.get());
+            } else {
+                searches.put(i, CompletableFuture.supplyAsync(
+                        () -> searchItems(request.getText(), request.isRanked(), afterId, pageable),
+                        itemSearchExecutor));
+            }
+        }
+        if (searches.isEmpty()) {
+            return results;
+        }
+        Map<Integer, List<Item>> foundItems = new HashMap<>();
+        searches.forEach((i, search) -> foundItems.put(i, search.join()));
+        List<Long> itemIds = foundItems.values().stream()
+                .flatMap(List::stream)
                 .map(Item::getId)
+                .distinct()
                 .collect(Collectors.toList());
-        List<Comment> itemsComments = commentRepository
-                .findAllByItemIdIn(itemIds, Sort.by("created").descending());
-        Map<Long, List<Comment>> itemsCommentsMap = itemsComments.stream()
-                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+        Map<Long, List<Comment>> itemsCommentsMap = findComments(itemIds);
+        foundItems.forEach((i, items) -> {
+            ItemSearchRequestDto request = requests.get(i);
+            Pageable pageable = toPageable(request);
+            List<ItemDto> searchedItems = itemMapper.toFullItemDtoList(items, Collections.emptyMap(), itemsCommentsMap);
+            itemSearchCache.put(request.getText(), request.isRanked(),
+                    request.getAfter() == null ? 0 : request.getAfter(),
+                    pageable.getOffset(), pageable.getPageSize(), searchedItems, evictionsBefore);
+            results.set(i, searchedItems);
+        });
+        return results;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamSearcherItems(String text, Long after, Pageable pageable, Consumer<ItemDto> action) {
+        if (text.isEmpty()) {
+            return;
+        }
+        long afterId = after == null ? 0 : after;
+        Consumer<List<Item>> chunkAction = chunk -> toFullItemDtoList(chunk, false).forEach(action);
+        if (searchProperties.getMode() == ItemSearchMode.INDEX) {
+            streamIndexedItems(text, afterId, pageable, chunkAction);
+            return;
+        }
+        try (Stream<Item> items = streamAvailableItemsInDatabase(text, afterId, pageable)) {
+            forEachChunk(items.iterator(), chunkAction);
+        }
+    }
 
-        return itemMapper.toFullItemDtoList(items, Collections.EMPTY_MAP, itemsCommentsMap);
+    @Override
+    public List<String> getSuggestions(String prefix, int limit) {
+        return itemSearchIndex.suggest(prefix, Math.min(limit, MAX_SUGGESTIONS));
+    }
+
+    @Override
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Calendar start can't be after its end");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_CALENDAR_DAYS) {
+            throw new IllegalArgumentException(
+                    String.format("Calendar can't be longer than %d days", MAX_CALENDAR_DAYS));
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException(String.format("Item id=%d not found", itemId));
+        }
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .slots(itemCalendar.getSlots(itemId, from.atStartOfDay(), to.plusDays(1).atStartOfDay()))
+                .build();
     }
 
     @Override
@@ -152,34 +314,197 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new NotFoundException(String.format("User id=%d not found", userId)));
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException(String.format("Item id=%d not found", itemId)));
-        List<Booking> userBookings = bookingRepository
-                .findAllByBookerIdAndItemIdAndStatusIsAndEndTimeBefore(
-                        userId, itemId, BookingStatus.APPROVED, created);
-        if (userBookings.isEmpty()) {
+        if (!bookingRepository.existsFinishedApprovedBooking(userId, itemId, created)) {
             throw new IllegalArgumentException(String.format("User id=%d didn't book this item id=%d", userId, itemId));
         }
-        Comment comment = commentMapper.toComment(commentDto, item, user, created);
-        return commentMapper.toCommentDto(commentRepository.save(comment));
+        Comment comment = commentRepository.save(commentMapper.toComment(commentDto, item, user, created));
+        itemSearchCache.evict(List.of(itemId));
+        return commentMapper.toCommentDto(comment);
+    }
+
+    private List<Item> searchItems(String text, boolean ranked, long afterId, Pageable pageable) {
+        return ranked
+                ? searchRankedItems(text, pageable)
+                : searchAvailableItems(text, afterId, pageable);
+    }
+
+    private static Pageable toPageable(ItemSearchRequestDto request) {
+        if (request.getSize() <= 0 || request.getFrom() < 0) {
+            throw new IllegalArgumentException("Search page must have from >= 0 and size > 0");
+        }
+        return PageRequest.of(request.getAfter() == null ? request.getFrom() / request.getSize() : 0,
+                request.getSize());
+    }
+
+    private List<Item> searchAvailableItems(String text, long afterId, Pageable pageable) {
+        if (searchProperties.getMode() == ItemSearchMode.DATABASE) {
+            return searchAvailableItemsInDatabase(text, afterId, pageable);
+        }
+        if (ItemSearchIndex.isSingleTerm(text)) {
+            List<Long> pageIds = searchIndexedPageIds(text, afterId, pageable);
+            if (pageIds.isEmpty()) {
+                return Collections.emptyList();
+            }
+            return itemRepository.findAllById(pageIds).stream()
+                    .sorted(Comparator.comparing(Item::getId))
+                    .collect(Collectors.toList());
+        }
+        String query = text.toLowerCase();
+        long skip = pageable.getOffset();
+        List<Item> items = new ArrayList<>();
+        long lastId = afterId;
+        while (items.size() < pageable.getPageSize()) {
+            List<Long> candidateIds = itemSearchIndex.search(text, lastId, STREAM_CHUNK_SIZE);
+            if (candidateIds.isEmpty()) {
+                break;
+            }
+            lastId = candidateIds.get(candidateIds.size() - 1);
+            List<Item> matched = itemRepository.findAllById(candidateIds).stream()
+                    .filter(item -> containsText(item, query))
+                    .sorted(Comparator.comparing(Item::getId))
+                    .collect(Collectors.toList());
+            int fromIndex = (int) Math.min(skip, matched.size());
+            skip -= fromIndex;
+            items.addAll(matched.subList(fromIndex,
+                    Math.min(fromIndex + pageable.getPageSize() - items.size(), matched.size())));
+            if (candidateIds.size() < STREAM_CHUNK_SIZE) {
+                break;
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Loads the matched items in chunks of ids, so only one chunk of entities is held at a time.
+     * A single-term match is exact and only the page's ids are read from the index, a multi-term one
+     * is read chunk by chunk after the last candidate and checked item by item.
+     */
+    private void streamIndexedItems(String text, long afterId, Pageable pageable, Consumer<List<Item>> chunkAction) {
+        String query = ItemSearchIndex.isSingleTerm(text) ? null : text.toLowerCase();
+        List<Long> pageIds = query == null ? searchIndexedPageIds(text, afterId, pageable) : null;
+        long skip = query == null ? 0 : pageable.getOffset();
+        long remaining = pageable.getPageSize();
+        long lastId = afterId;
+        for (int i = 0; remaining > 0; i += STREAM_CHUNK_SIZE) {
+            List<Long> candidateIds = pageIds != null
+                    ? pageIds.subList(Math.min(i, pageIds.size()), Math.min(i + STREAM_CHUNK_SIZE, pageIds.size()))
+                    : itemSearchIndex.search(text, lastId, STREAM_CHUNK_SIZE);
+            if (candidateIds.isEmpty()) {
+                break;
+            }
+            lastId = candidateIds.get(candidateIds.size() - 1);
+            List<Item> chunk = itemRepository.findAllById(candidateIds).stream()
+                    .filter(item -> query == null || containsText(item, query))
+                    .sorted(Comparator.comparing(Item::getId))
+                    .collect(Collectors.toList());
+            int fromIndex = (int) Math.min(skip, chunk.size());
+            skip -= fromIndex;
+            chunk = chunk.subList(fromIndex, (int) Math.min(fromIndex + remaining, chunk.size()));
+            remaining -= chunk.size();
+            if (!chunk.isEmpty()) {
+                chunkAction.accept(chunk);
+            }
+            entityManager.clear();
+            if (candidateIds.size() < STREAM_CHUNK_SIZE) {
+                break;
+            }
+        }
+    }
+
+    private List<Long> searchIndexedPageIds(String text, long afterId, Pageable pageable) {
+        List<Long> ids = itemSearchIndex.search(text, afterId,
+                (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE));
+        return ids.subList((int) Math.min(pageable.getOffset(), ids.size()), ids.size());
+    }
+
+    private static boolean containsText(Item item, String query) {
+        return item.getName().toLowerCase().contains(query)
+                || item.getDescription().toLowerCase().contains(query);
+    }
+
+    private List<Item> searchRankedItems(String text, Pageable pageable) {
+        List<Long> rankedIds = itemSearchIndex.searchRanked(
+                text, (int) pageable.getOffset() + pageable.getPageSize());
+        if (pageable.getOffset() >= rankedIds.size()) {
+            return Collections.emptyList();
+        }
+        List<Long> pageIds = rankedIds.subList((int) pageable.getOffset(), rankedIds.size());
+        Map<Long, Item> itemsById = itemRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return pageIds.stream()
+                .map(itemsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private List<Item> searchAvailableItemsInDatabase(String text, long afterId, Pageable pageable) {
+        if (!searchProperties.isFullText()) {
+            return itemRepository.findAllAvailableBySearch(
+                    text.toLowerCase(),
+                    text.toLowerCase(),
+                    TRUE,
+                    afterId,
+                    pageable);
+        }
+        String query = toPrefixTsQuery(text);
+        return query.isEmpty()
+                ? Collections.emptyList()
+                : itemRepository.findAllAvailableByFullTextSearch(query, afterId, pageable);
     }
 
-    public static Booking getLastBooking(List<Booking> bookings) {
-        if (bookings == null || bookings.isEmpty()) {
-            return null;
+    private Stream<Item> streamAvailableItemsInDatabase(String text, long afterId, Pageable pageable) {
+        if (!searchProperties.isFullText()) {
+            return itemRepository.streamAllAvailableBySearch(
+                    text.toLowerCase(),
+                    text.toLowerCase(),
+                    TRUE,
+                    afterId,
+                    pageable);
         }
-        Collections.reverse(bookings);
-        return bookings.stream()
-                .filter(booking -> booking.getStartTime().isBefore(LocalDateTime.now()))
-                .findFirst()
-                .orElse(null);
+        String query = toPrefixTsQuery(text);
+        return query.isEmpty()
+                ? Stream.empty()
+                : itemRepository.streamAllAvailableByFullTextSearch(query, afterId, pageable);
+    }
+
+    private static String toPrefixTsQuery(String text) {
+        return ItemSearchIndex.tokenize(text).stream()
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
     }
 
-    public static Booking getNextBooking(List<Booking> bookings) {
-        if (bookings == null || bookings.isEmpty()) {
-            return null;
+    /**
+     * Hands the items over in chunks, detaching each chunk once it is processed so that
+     * a long result keeps only one chunk in the persistence context.
+     */
+    private void forEachChunk(Iterator<Item> items, Consumer<List<Item>> chunkAction) {
+        List<Item> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        while (items.hasNext()) {
+            chunk.add(items.next());
+            if (chunk.size() == STREAM_CHUNK_SIZE || !items.hasNext()) {
+                chunkAction.accept(chunk);
+                entityManager.clear();
+                chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+            }
         }
-        return bookings.stream()
-                .filter(booking -> booking.getStartTime().isAfter(LocalDateTime.now()))
-                .findFirst()
-                .orElse(null);
+    }
+
+    private List<ItemDto> toFullItemDtoList(List<Item> items, boolean withBookings) {
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, ItemBookingSummary> itemBookingSummaries = withBookings
+                ? this.itemBookingSummaries.getAll(itemIds)
+                : Collections.emptyMap();
+
+        return itemMapper.toFullItemDtoList(items, itemBookingSummaries, findComments(itemIds));
+    }
+
+    private Map<Long, List<Comment>> findComments(List<Long> itemIds) {
+        List<Comment> itemsComments = commentRepository
+                .findAllByItemIdIn(itemIds, Sort.by("created").descending());
+        return itemsComments.stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
     }
 }
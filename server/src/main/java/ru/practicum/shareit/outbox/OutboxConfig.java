@@ -0,0 +1,19 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class OutboxConfig {
+
+    /**
+     * A single thread keeps the events in stream order and keeps slow subscribers off the scheduler thread.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService outboxDeliveryExecutor() {
+        return Executors.newSingleThreadExecutor();
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change recorded in OUTBOX_EVENTS in the transaction that made it. The position is assigned when the
+ * event is published and orders the published events.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    private Long id;
+
+    private OutboxEventType type;
+
+    private Long aggregateId;
+
+    /**
+     * Owner of the changed item, or of the booked item for booking events.
+     */
+    private Long ownerId;
+
+    /**
+     * The changed booking or item as JSON.
+     */
+    private String payload;
+
+    private LocalDateTime created;
+
+    private Long position;
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Change stream for internal consumers; it is not exposed by the gateway.
+ */
+@Slf4j
+@RestController
+@RequestMapping(path = "/events")
+public class OutboxEventController {
+
+    private final OutboxPublisher outboxPublisher;
+
+    @Autowired
+    public OutboxEventController(OutboxPublisher outboxPublisher) {
+        this.outboxPublisher = outboxPublisher;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.info("Request received: GET /events, Last-Event-ID={}", lastEventId);
+        return outboxPublisher.stream(lastEventId, event -> true);
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Sends the events accepted by the filter to one SSE client in position order, each once. Live events
+ * arriving while the stored ones are replayed are held back until the replay ends.
+ */
+class OutboxEventStream {
+
+    private final SseEmitter emitter;
+    private final Predicate<OutboxEvent> filter;
+    private final List<OutboxEvent> heldBack = new ArrayList<>();
+    private long position;
+    private boolean replaying;
+    private boolean closed;
+
+    OutboxEventStream(SseEmitter emitter, Predicate<OutboxEvent> filter, long position, boolean replaying) {
+        this.emitter = emitter;
+        this.filter = filter;
+        this.position = position;
+        this.replaying = replaying;
+    }
+
+    synchronized void publish(OutboxEvent event) {
+        if (replaying) {
+            heldBack.add(event);
+        } else {
+            send(event);
+        }
+    }
+
+    synchronized void replay(List<OutboxEvent> events) {
+        events.forEach(this::send);
+    }
+
+    synchronized void endReplay() {
+        replaying = false;
+        heldBack.forEach(this::send);
+        heldBack.clear();
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private void send(OutboxEvent event) {
+        if (closed || event.getPosition() <= position) {
+            return;
+        }
+        position = event.getPosition();
+        if (!filter.test(event)) {
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getPosition()))
+                    .name(event.getType().name())
+                    .data(event.getPayload(), MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            closed = true;
+            emitter.completeWithError(e);
+        }
+    }
+}
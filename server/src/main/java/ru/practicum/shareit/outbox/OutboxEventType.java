@@ -0,0 +1,8 @@
+package ru.practicum.shareit.outbox;
+
+public enum OutboxEventType {
+    BOOKING_CREATED,
+    BOOKING_STATUS_CHANGED,
+    ITEM_UPDATED,
+    ITEM_DELETED
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "shareit.outbox")
+public class OutboxProperties {
+
+    /**
+     * How many events are published or replayed at a time.
+     */
+    private int batchSize = 500;
+
+    /**
+     * How long published events are kept for clients resuming their streams.
+     */
+    private Duration retention = Duration.ofDays(1);
+
+    /**
+     * How long an event stream stays open before the client has to reconnect.
+     */
+    private Duration streamTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,151 @@
+package ru.practicum.shareit.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+
+/**
+ * Polls OUTBOX_EVENTS for committed events, numbers them with consecutive stream positions and passes them
+ * to the subscribers in that order.
+ */
+@Slf4j
+@Component
+public class OutboxPublisher {
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor deliveryExecutor;
+    private final List<Consumer<OutboxEvent>> subscribers = new CopyOnWriteArrayList<>();
+    private final ConcurrentMap<Long, List<Consumer<OutboxEvent>>> ownerSubscribers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OutboxPublisher(OutboxRepository outboxRepository,
+                           OutboxProperties properties,
+                           PlatformTransactionManager transactionManager,
+                           @Qualifier("outboxDeliveryExecutor") Executor deliveryExecutor) {
+        this.outboxRepository = outboxRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deliveryExecutor = deliveryExecutor;
+    }
+
+    /**
+     * @return a callback that cancels the subscription
+     */
+    public Runnable subscribe(Consumer<OutboxEvent> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    /**
+     * Subscribes to the events of one owner's items and bookings only.
+     *
+     * @return a callback that cancels the subscription
+     */
+    public Runnable subscribe(Long ownerId, Consumer<OutboxEvent> subscriber) {
+        ownerSubscribers.compute(ownerId, (id, ownerList) -> {
+            List<Consumer<OutboxEvent>> list = ownerList == null ? new CopyOnWriteArrayList<>() : ownerList;
+            list.add(subscriber);
+            return list;
+        });
+        return () -> ownerSubscribers.computeIfPresent(ownerId, (id, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * Streams the events accepted by the filter as SSE. If {@code lastPosition} is given, the stored
+     * events published after it are sent first.
+     */
+    public SseEmitter stream(Long lastPosition, Predicate<OutboxEvent> filter) {
+        return stream(lastPosition, filter, this::subscribe,
+                position -> outboxRepository.findAllPublishedAfter(position, properties.getBatchSize()));
+    }
+
+    /**
+     * Same as {@link #stream(Long, Predicate)} for the events of one owner.
+     */
+    public SseEmitter streamByOwner(Long ownerId, Long lastPosition, Predicate<OutboxEvent> filter) {
+        return stream(lastPosition, filter, subscriber -> subscribe(ownerId, subscriber),
+                position -> outboxRepository.findAllByOwnerIdPublishedAfter(
+                        ownerId, position, properties.getBatchSize()));
+    }
+
+    private SseEmitter stream(Long lastPosition, Predicate<OutboxEvent> filter,
+                              Function<Consumer<OutboxEvent>, Runnable> subscribe,
+                              LongFunction<List<OutboxEvent>> findPublishedAfter) {
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeout().toMillis());
+        OutboxEventStream stream = new OutboxEventStream(emitter, filter,
+                lastPosition == null ? 0 : lastPosition, lastPosition != null);
+        Runnable unsubscribe = subscribe.apply(stream::publish);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        if (lastPosition != null) {
+            long position = lastPosition;
+            List<OutboxEvent> events;
+            do {
+                events = findPublishedAfter.apply(position);
+                stream.replay(events);
+                if (!events.isEmpty()) {
+                    position = events.get(events.size() - 1).getPosition();
+                }
+            } while (events.size() == properties.getBatchSize() && !stream.isClosed());
+            stream.endReplay();
+        }
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.poll-interval:PT1S}")
+    public void poll() {
+        List<OutboxEvent> events;
+        do {
+            events = transactionTemplate.execute(status -> {
+                long position = outboxRepository.lockLastPosition();
+                List<OutboxEvent> unpublished = outboxRepository.findAllUnpublished(properties.getBatchSize());
+                for (OutboxEvent event : unpublished) {
+                    event.setPosition(++position);
+                }
+                outboxRepository.publish(unpublished);
+                return unpublished;
+            });
+            if (!events.isEmpty()) {
+                List<OutboxEvent> published = events;
+                deliveryExecutor.execute(() -> published.forEach(this::deliver));
+            }
+        } while (events.size() == properties.getBatchSize());
+        outboxRepository.deletePublishedBefore(LocalDateTime.now().minus(properties.getRetention()));
+    }
+
+    private void deliver(OutboxEvent event) {
+        subscribers.forEach(subscriber -> deliver(event, subscriber));
+        ownerSubscribers.getOrDefault(event.getOwnerId(), List.of())
+                .forEach(subscriber -> deliver(event, subscriber));
+    }
+
+    private static void deliver(OutboxEvent event, Consumer<OutboxEvent> subscriber) {
+        try {
+            subscriber.accept(event);
+        } catch (RuntimeException e) {
+            log.warn("Subscriber failed to handle outbox event id={}", event.getId(), e);
+        }
+    }
+}
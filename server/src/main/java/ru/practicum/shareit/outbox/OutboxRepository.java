@@ -0,0 +1,106 @@
+package ru.practicum.shareit.outbox;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class OutboxRepository {
+
+    private static final String INSERT_QUERY = "INSERT INTO OUTBOX_EVENTS " +
+            "(EVENT_TYPE, AGGREGATE_ID, OWNER_ID, PAYLOAD, CREATED_TIME) " +
+            "VALUES (:type, :aggregateId, :ownerId, :payload, :created)";
+
+    private static final String FIND_UNPUBLISHED_QUERY = "SELECT * FROM OUTBOX_EVENTS " +
+            "WHERE STREAM_POSITION IS NULL ORDER BY EVENT_ID LIMIT :limit";
+
+    private static final String FIND_PUBLISHED_QUERY = "SELECT * FROM OUTBOX_EVENTS " +
+            "WHERE STREAM_POSITION > :position ORDER BY STREAM_POSITION LIMIT :limit";
+
+    private static final String FIND_PUBLISHED_BY_OWNER_QUERY = "SELECT * FROM OUTBOX_EVENTS " +
+            "WHERE OWNER_ID = :ownerId AND STREAM_POSITION > :position ORDER BY STREAM_POSITION LIMIT :limit";
+
+    private static final String LOCK_LAST_POSITION_QUERY = "SELECT LAST_POSITION FROM OUTBOX_STREAM " +
+            "WHERE STREAM_ID = 1 FOR UPDATE";
+
+    private static final String UPDATE_LAST_POSITION_QUERY = "UPDATE OUTBOX_STREAM SET LAST_POSITION = :position " +
+            "WHERE STREAM_ID = 1";
+
+    private static final String PUBLISH_QUERY = "UPDATE OUTBOX_EVENTS SET STREAM_POSITION = :position " +
+            "WHERE EVENT_ID = :id";
+
+    private static final String DELETE_PUBLISHED_QUERY = "DELETE FROM OUTBOX_EVENTS " +
+            "WHERE STREAM_POSITION IS NOT NULL AND CREATED_TIME < :before";
+
+    private static final RowMapper<OutboxEvent> EVENT_ROW_MAPPER = (rs, rowNum) -> OutboxEvent.builder()
+            .id(rs.getLong("EVENT_ID"))
+            .type(OutboxEventType.valueOf(rs.getString("EVENT_TYPE")))
+            .aggregateId(rs.getLong("AGGREGATE_ID"))
+            .ownerId(rs.getLong("OWNER_ID"))
+            .payload(rs.getString("PAYLOAD"))
+            .created(rs.getTimestamp("CREATED_TIME").toLocalDateTime())
+            .position(rs.getObject("STREAM_POSITION", Long.class))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OutboxRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void save(OutboxEvent event) {
+        jdbcTemplate.update(INSERT_QUERY, new MapSqlParameterSource()
+                .addValue("type", event.getType().name())
+                .addValue("aggregateId", event.getAggregateId())
+                .addValue("ownerId", event.getOwnerId())
+                .addValue("payload", event.getPayload())
+                .addValue("created", event.getCreated()));
+    }
+
+    public List<OutboxEvent> findAllUnpublished(int limit) {
+        return jdbcTemplate.query(FIND_UNPUBLISHED_QUERY, Map.of("limit", limit), EVENT_ROW_MAPPER);
+    }
+
+    public List<OutboxEvent> findAllPublishedAfter(long position, int limit) {
+        return jdbcTemplate.query(FIND_PUBLISHED_QUERY, Map.of("position", position, "limit", limit),
+                EVENT_ROW_MAPPER);
+    }
+
+    public List<OutboxEvent> findAllByOwnerIdPublishedAfter(long ownerId, long position, int limit) {
+        return jdbcTemplate.query(FIND_PUBLISHED_BY_OWNER_QUERY,
+                Map.of("ownerId", ownerId, "position", position, "limit", limit), EVENT_ROW_MAPPER);
+    }
+
+    /**
+     * Locks the stream counter until the end of the current transaction. The counter survives retention,
+     * so positions never go back even when every published event is deleted.
+     */
+    public long lockLastPosition() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(LOCK_LAST_POSITION_QUERY, Long.class);
+    }
+
+    public void publish(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(PUBLISH_QUERY, events.stream()
+                .map(event -> new MapSqlParameterSource()
+                        .addValue("position", event.getPosition())
+                        .addValue("id", event.getId()))
+                .toArray(SqlParameterSource[]::new));
+        jdbcTemplate.update(UPDATE_LAST_POSITION_QUERY,
+                Map.of("position", events.get(events.size() - 1).getPosition()));
+    }
+
+    public int deletePublishedBefore(LocalDateTime before) {
+        return jdbcTemplate.update(DELETE_PUBLISHED_QUERY, Map.of("before", before));
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.transaction;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers updates of in-memory state (caches, indexes, availability trees) until the change they reflect is
+ * committed, so a rolled back change leaves no trace in them and a read racing the commit can't cache the
+ * old data after the eviction.
+ */
+@Slf4j
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * Runs the action once the current transaction commits, or at once if there is no transaction.
+     * The action is dropped if the transaction rolls back. As the change is already committed, an action
+     * failure is logged rather than thrown.
+     */
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    log.warn("Failed to apply a committed change", e);
+                }
+            }
+        });
+    }
+}
@@ -2,8 +2,14 @@ package ru.practicum.shareit.user.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.availability.BookingAvailability;
+import ru.practicum.shareit.booking.availability.ItemCalendar;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
@@ -12,6 +18,7 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class UserServiceImpl implements UserService {
@@ -19,12 +26,24 @@ public class UserServiceImpl implements UserService {
     public UserRepository userRepository;
     private ItemRepository itemRepository;
     private UserMapper userMapper;
+    private ItemSearchIndex itemSearchIndex;
+    private ItemSearchCache itemSearchCache;
+    private BookingRepository bookingRepository;
+    private BookingAvailability bookingAvailability;
+    private ItemCalendar itemCalendar;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, ItemRepository itemRepository, UserMapper userMapper) {
+    public UserServiceImpl(UserRepository userRepository, ItemRepository itemRepository, UserMapper userMapper, ItemSearchIndex itemSearchIndex, ItemSearchCache itemSearchCache,
+                           BookingRepository bookingRepository, BookingAvailability bookingAvailability,
+                           ItemCalendar itemCalendar) {
         this.userRepository = userRepository;
         this.itemRepository = itemRepository;
         this.userMapper = userMapper;
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemSearchCache = itemSearchCache;
+        this.bookingRepository = bookingRepository;
+        this.bookingAvailability = bookingAvailability;
+        this.itemCalendar = itemCalendar;
     }
 
 
@@ -57,7 +76,17 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public void delete(Long id) {
-        itemRepository.deleteAllByOwnerId(id);
+        List<Long> bookedItemIds = bookingRepository.findAllItemIdsByBookerId(id);
+        List<Item> deletedItems = itemRepository.deleteAllByOwnerId(id);
+        List<Long> deletedItemIds = deletedItems.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        itemSearchIndex.remove(deletedItemIds);
+        deletedItems.forEach(itemSearchCache::evict);
         userRepository.deleteById(id);
+        bookingAvailability.evict(deletedItemIds);
+        bookingAvailability.evict(bookedItemIds);
+        itemCalendar.evict(deletedItemIds);
+        itemCalendar.evict(bookedItemIds);
     }
 }
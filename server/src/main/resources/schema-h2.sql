@@ -0,0 +1,17 @@
+CREATE TABLE IF NOT EXISTS BOOKINGS_ARCHIVE (
+    BOOKING_ID BIGINT NOT NULL,
+    START_TIME TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    END_TIME TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    ITEM_ID BIGINT NOT NULL,
+    USER_ID BIGINT NOT NULL,
+    STATUS VARCHAR(8) NOT NULL,
+    CONSTRAINT BOOKINGS_ARCHIVE_PK PRIMARY KEY (BOOKING_ID),
+    CONSTRAINT BOOKINGS_ARCHIVE_ITEMS_FK FOREIGN KEY (ITEM_ID) REFERENCES ITEMS(ITEM_ID) ON DELETE CASCADE,
+    CONSTRAINT BOOKINGS_ARCHIVE_USERS_FK FOREIGN KEY (USER_ID) REFERENCES USERS(USER_ID) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS BOOKINGS_ARCHIVE_BOOKER_START_IDX
+    ON BOOKINGS_ARCHIVE (USER_ID, START_TIME DESC, BOOKING_ID DESC);
+
+CREATE INDEX IF NOT EXISTS BOOKINGS_ARCHIVE_ITEM_START_IDX
+    ON BOOKINGS_ARCHIVE (ITEM_ID, START_TIME DESC, BOOKING_ID DESC);
@@ -0,0 +1,39 @@
+ALTER TABLE ITEMS ADD COLUMN IF NOT EXISTS SEARCH_VECTOR TSVECTOR
+    GENERATED ALWAYS AS (TO_TSVECTOR('simple', ITEM_NAME || ' ' || DESCRIPTION)) STORED;
+
+CREATE INDEX IF NOT EXISTS ITEMS_SEARCH_VECTOR_IDX ON ITEMS USING GIN (SEARCH_VECTOR);
+
+CREATE EXTENSION IF NOT EXISTS PG_TRGM;
+
+CREATE INDEX IF NOT EXISTS ITEMS_NAME_TRGM_IDX ON ITEMS USING GIN (LOWER(ITEM_NAME) GIN_TRGM_OPS);
+
+CREATE INDEX IF NOT EXISTS ITEMS_DESCRIPTION_TRGM_IDX ON ITEMS USING GIN (LOWER(DESCRIPTION) GIN_TRGM_OPS);
+
+CREATE EXTENSION IF NOT EXISTS BTREE_GIST;
+
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM PG_CONSTRAINT WHERE CONNAME = ''bookings_approved_no_overlap'') THEN
+        ALTER TABLE BOOKINGS ADD CONSTRAINT BOOKINGS_APPROVED_NO_OVERLAP
+            EXCLUDE USING GIST (ITEM_ID WITH =, TSRANGE(START_TIME, END_TIME) WITH &&)
+            WHERE (STATUS = ''APPROVED'');
+    END IF;
+END';
+
+CREATE TABLE IF NOT EXISTS BOOKINGS_ARCHIVE (
+    BOOKING_ID BIGINT NOT NULL,
+    START_TIME TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    END_TIME TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    ITEM_ID BIGINT NOT NULL,
+    USER_ID BIGINT NOT NULL,
+    STATUS VARCHAR(8) NOT NULL,
+    CONSTRAINT BOOKINGS_ARCHIVE_PK PRIMARY KEY (BOOKING_ID, END_TIME),
+    CONSTRAINT BOOKINGS_ARCHIVE_ITEMS_FK FOREIGN KEY (ITEM_ID) REFERENCES ITEMS(ITEM_ID) ON DELETE CASCADE,
+    CONSTRAINT BOOKINGS_ARCHIVE_USERS_FK FOREIGN KEY (USER_ID) REFERENCES USERS(USER_ID) ON DELETE CASCADE
+) PARTITION BY RANGE (END_TIME);
+
+CREATE INDEX IF NOT EXISTS BOOKINGS_ARCHIVE_BOOKER_START_IDX
+    ON BOOKINGS_ARCHIVE (USER_ID, START_TIME DESC, BOOKING_ID DESC);
+
+CREATE INDEX IF NOT EXISTS BOOKINGS_ARCHIVE_ITEM_START_IDX
+    ON BOOKINGS_ARCHIVE (ITEM_ID, START_TIME DESC, BOOKING_ID DESC);
@@ -33,11 +33,14 @@ CREATE TABLE IF NOT EXISTS BOOKINGS (
     ITEM_ID BIGINT NOT NULL,
     USER_ID BIGINT NOT NULL,
     STATUS VARCHAR(8) NOT NULL,
+    VERSION BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT BOOKINGS_PK PRIMARY KEY (BOOKING_ID),
     CONSTRAINT BOOKINGS_ITEMS_FK FOREIGN KEY (ITEM_ID) REFERENCES ITEMS(ITEM_ID) ON DELETE CASCADE,
     CONSTRAINT BOOKINGS_USERS_FK FOREIGN KEY (USER_ID) REFERENCES USERS(USER_ID) ON DELETE CASCADE
 );
 
+ALTER TABLE BOOKINGS ADD COLUMN IF NOT EXISTS VERSION BIGINT DEFAULT 0 NOT NULL;
+
 CREATE TABLE IF NOT EXISTS COMMENTS (
 	COMMENT_ID BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
 	TEXT VARCHAR(3000) NOT NULL,
@@ -49,4 +52,52 @@ CREATE TABLE IF NOT EXISTS COMMENTS (
     CONSTRAINT COMMENTS_USERS_FK FOREIGN KEY (USER_ID) REFERENCES USERS(USER_ID) ON DELETE CASCADE
 );
 
+CREATE TABLE IF NOT EXISTS ITEM_BOOKING_SUMMARIES (
+    ITEM_ID BIGINT NOT NULL,
+    LAST_BOOKING_ID BIGINT,
+    LAST_BOOKER_ID BIGINT,
+    LAST_START_TIME TIMESTAMP WITHOUT TIME ZONE,
+    NEXT_BOOKING_ID BIGINT,
+    NEXT_BOOKER_ID BIGINT,
+    NEXT_START_TIME TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT ITEM_BOOKING_SUMMARIES_PK PRIMARY KEY (ITEM_ID),
+    CONSTRAINT ITEM_BOOKING_SUMMARIES_ITEMS_FK FOREIGN KEY (ITEM_ID) REFERENCES ITEMS(ITEM_ID) ON DELETE CASCADE,
+    CONSTRAINT ITEM_BOOKING_SUMMARIES_LAST_FK FOREIGN KEY (LAST_BOOKING_ID)
+        REFERENCES BOOKINGS(BOOKING_ID) ON DELETE CASCADE,
+    CONSTRAINT ITEM_BOOKING_SUMMARIES_NEXT_FK FOREIGN KEY (NEXT_BOOKING_ID)
+        REFERENCES BOOKINGS(BOOKING_ID) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS OUTBOX_EVENTS (
+    EVENT_ID BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    EVENT_TYPE VARCHAR(32) NOT NULL,
+    AGGREGATE_ID BIGINT NOT NULL,
+    OWNER_ID BIGINT NOT NULL,
+    PAYLOAD VARCHAR NOT NULL,
+    CREATED_TIME TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    STREAM_POSITION BIGINT,
+    CONSTRAINT OUTBOX_EVENTS_PK PRIMARY KEY (EVENT_ID),
+    CONSTRAINT OUTBOX_EVENTS_STREAM_POSITION_UQ UNIQUE (STREAM_POSITION)
+);
+
+CREATE TABLE IF NOT EXISTS OUTBOX_STREAM (
+    STREAM_ID INTEGER NOT NULL,
+    LAST_POSITION BIGINT NOT NULL,
+    CONSTRAINT OUTBOX_STREAM_PK PRIMARY KEY (STREAM_ID)
+);
+
+INSERT INTO OUTBOX_STREAM (STREAM_ID, LAST_POSITION)
+SELECT 1, COALESCE((SELECT MAX(STREAM_POSITION) FROM OUTBOX_EVENTS), 0)
+WHERE NOT EXISTS (SELECT 1 FROM OUTBOX_STREAM);
+
+CREATE INDEX IF NOT EXISTS ITEMS_OWNER_IDX ON ITEMS (USER_ID);
+
+CREATE INDEX IF NOT EXISTS BOOKINGS_BOOKER_START_IDX ON BOOKINGS (USER_ID, START_TIME DESC, BOOKING_ID DESC);
+
+CREATE INDEX IF NOT EXISTS BOOKINGS_ITEM_START_IDX ON BOOKINGS (ITEM_ID, START_TIME DESC, BOOKING_ID DESC);
+
+CREATE INDEX IF NOT EXISTS ITEM_BOOKING_SUMMARIES_NEXT_START_IDX ON ITEM_BOOKING_SUMMARIES (NEXT_START_TIME);
+
+CREATE INDEX IF NOT EXISTS BOOKINGS_END_IDX ON BOOKINGS (END_TIME);
 
+CREATE INDEX IF NOT EXISTS OUTBOX_EVENTS_OWNER_POSITION_IDX ON OUTBOX_EVENTS (OWNER_ID, STREAM_POSITION);
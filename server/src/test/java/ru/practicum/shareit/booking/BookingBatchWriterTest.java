@@ -0,0 +1,137 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingBatchWriterTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private BookingBatchWriter bookingBatchWriter;
+    private User booker;
+    private Item item;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        BookingProperties properties = new BookingProperties();
+        properties.getGroupCommit().setEnabled(true);
+        bookingBatchWriter = new BookingBatchWriter(properties, jdbcTemplate, transactionManager);
+        User owner = userRepository.save(User.builder().name("owner").email("owner@email.com").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker@email.com").build());
+        item = itemRepository.save(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+        start = LocalDateTime.now().plusDays(1).withNano(0);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        bookingBatchWriter.stop();
+        jdbcTemplate.update("DELETE FROM USERS");
+    }
+
+    @Test
+    void write_whenBatchIsValid_thenEveryBookingInsertedWithItsId() {
+        List<BookingBatchWriter.PendingBooking> batch = List.of(pending(item, 0), pending(item, 1), pending(item, 2));
+
+        bookingBatchWriter.write(batch);
+
+        List<Long> ids = batch.stream()
+                .map(pending -> pending.getFuture().join().getId())
+                .collect(Collectors.toList());
+        assertThat(ids).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(jdbcTemplate.queryForList("SELECT BOOKING_ID FROM BOOKINGS WHERE ITEM_ID = ?",
+                Long.class, item.getId())).containsExactlyInAnyOrderElementsOf(ids);
+    }
+
+    @Test
+    void write_whenOneBookingIsInvalid_thenOnlyItsFutureFails() {
+        BookingBatchWriter.PendingBooking valid = pending(item, 0);
+        BookingBatchWriter.PendingBooking invalid = pending(Item.builder().id(-1L).build(), 1);
+
+        bookingBatchWriter.write(List.of(valid, invalid));
+
+        assertThat(valid.getFuture()).isCompleted();
+        assertThat(invalid.getFuture()).isCompletedExceptionally();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOKINGS", Long.class)).isEqualTo(1L);
+    }
+
+    @Test
+    void write_whenInTransactionCallbackFails_thenBookingRolledBackAndFutureFails() {
+        BookingBatchWriter.PendingBooking pending = new BookingBatchWriter.PendingBooking(booking(item, 0),
+                booking -> {
+                    throw new IllegalStateException("outbox is unavailable");
+                });
+
+        bookingBatchWriter.write(List.of(pending));
+
+        assertThat(pending.getFuture()).isCompletedExceptionally();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BOOKINGS", Long.class)).isZero();
+    }
+
+    @Test
+    void submit_whenWriterStarted_thenFutureCompletedWithInsertedBooking() throws Exception {
+        bookingBatchWriter.start();
+
+        List<Long> insertedIds = new ArrayList<>();
+
+        Booking result = bookingBatchWriter.submit(booking(item, 0), booking -> insertedIds.add(booking.getId()))
+                .get(10, TimeUnit.SECONDS);
+
+        assertThat(result.getId()).isNotNull();
+        assertThat(result.getVersion()).isZero();
+        assertThat(insertedIds).containsExactly(result.getId());
+    }
+
+    private BookingBatchWriter.PendingBooking pending(Item item, int day) {
+        return new BookingBatchWriter.PendingBooking(booking(item, day), booking -> {
+        });
+    }
+
+    private Booking booking(Item item, int day) {
+        return Booking.builder()
+                .item(item)
+                .booker(booker)
+                .startTime(start.plusDays(day))
+                .endTime(start.plusDays(day).plusHours(1))
+                .status(BookingStatus.WAITING)
+                .build();
+    }
+}
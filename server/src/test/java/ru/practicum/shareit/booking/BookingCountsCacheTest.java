@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookingCountsCacheTest {
+
+    private final BookingProperties properties = new BookingProperties();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private BookingCountsCache cache;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BookingCountsCache(properties);
+        booking = Booking.builder()
+                .booker(User.builder().id(1L).build())
+                .item(Item.builder().owner(User.builder().id(2L).build()).build())
+                .build();
+    }
+
+    @Test
+    void get_whenCached_thenNotLoadedAgain() {
+        cache.get(1L, BookingRole.BOOKER, this::load);
+
+        BookingCountsDto result = cache.get(1L, BookingRole.BOOKER, this::load);
+
+        assertThat(result.getAll()).isEqualTo(1L);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void get_whenExpired_thenLoadedAgain() {
+        properties.getCountsCache().setTtl(Duration.ZERO);
+        cache.get(1L, BookingRole.BOOKER, this::load);
+
+        assertThat(cache.get(1L, BookingRole.BOOKER, this::load).getAll()).isEqualTo(2L);
+    }
+
+    @Test
+    void evict_whenBookingChanged_thenBookerAndOwnerCountsLoadedAgain() {
+        cache.get(1L, BookingRole.BOOKER, this::load);
+        cache.get(2L, BookingRole.OWNER, this::load);
+        cache.get(2L, BookingRole.BOOKER, this::load);
+
+        cache.evict(booking);
+        cache.get(1L, BookingRole.BOOKER, this::load);
+        cache.get(2L, BookingRole.OWNER, this::load);
+        cache.get(2L, BookingRole.BOOKER, this::load);
+
+        assertThat(loads.get()).isEqualTo(5);
+    }
+
+    @Test
+    void get_whenEvictedWhileLoading_thenLoadedCountsNotCached() {
+        cache.get(1L, BookingRole.BOOKER, () -> {
+            cache.evict(booking);
+            return load();
+        });
+
+        assertThat(cache.get(1L, BookingRole.BOOKER, this::load).getAll()).isEqualTo(2L);
+    }
+
+    private BookingCountsDto load() {
+        return BookingCountsDto.builder()
+                .all(loads.incrementAndGet())
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.booking.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.BookingProperties;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(BookingArchiveRepository.class)
+class BookingArchiverTest {
+
+    @Autowired
+    private BookingArchiveRepository archiveRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private BookingArchiver bookingArchiver;
+    private User booker;
+    private Item item;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        BookingProperties properties = new BookingProperties();
+        properties.getArchive().setBatchSize(1);
+        properties.getArchive().setMonthlyPartitions(false);
+        bookingArchiver = new BookingArchiver(archiveRepository, properties, transactionManager);
+        now = LocalDateTime.now().withNano(0);
+        User owner = entityManager.persist(User.builder().name("owner").email("owner@email.com").build());
+        booker = entityManager.persist(User.builder().name("booker").email("booker@email.com").build());
+        item = entityManager.persist(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    @Test
+    void archive_whenBookingsEndedBeforeHorizon_thenMovedToArchive() {
+        Booking old = persist(now.minusDays(300), now.minusDays(299), BookingStatus.APPROVED);
+        Booking rejected = persist(now.minusDays(250), now.minusDays(249), BookingStatus.REJECTED);
+        Booking recent = persist(now.minusDays(10), now.minusDays(9), BookingStatus.APPROVED);
+        entityManager.flush();
+        entityManager.clear();
+
+        bookingArchiver.archive();
+
+        assertThat(entityManager.find(Booking.class, old.getId())).isNull();
+        assertThat(entityManager.find(Booking.class, rejected.getId())).isNull();
+        assertThat(entityManager.find(Booking.class, recent.getId())).isNotNull();
+        ArchivedBooking archived = entityManager.find(ArchivedBooking.class, rejected.getId());
+        assertThat(archived.getStatus()).isEqualTo(BookingStatus.REJECTED);
+        assertThat(archived.getStartTime()).isEqualTo(rejected.getStartTime());
+        assertThat(archived.getBooker().getId()).isEqualTo(booker.getId());
+        assertThat(entityManager.find(ArchivedBooking.class, recent.getId())).isNull();
+    }
+
+    @Test
+    void archive_whenLastApprovedBookingEndedBeforeHorizon_thenKept() {
+        Booking old = persist(now.minusDays(300), now.minusDays(299), BookingStatus.APPROVED);
+        Booking last = persist(now.minusDays(200), now.minusDays(199), BookingStatus.APPROVED);
+        persist(now.minusDays(190), now.minusDays(189), BookingStatus.REJECTED);
+        entityManager.flush();
+        entityManager.clear();
+
+        bookingArchiver.archive();
+
+        assertThat(entityManager.find(ArchivedBooking.class, old.getId())).isNotNull();
+        assertThat(entityManager.find(Booking.class, last.getId())).isNotNull();
+        assertThat(entityManager.find(ArchivedBooking.class, last.getId())).isNull();
+    }
+
+    private Booking persist(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return entityManager.persist(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .startTime(start)
+                .endTime(end)
+                .status(status)
+                .build());
+    }
+}
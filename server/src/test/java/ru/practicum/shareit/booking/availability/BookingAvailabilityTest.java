@@ -0,0 +1,186 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.BookingProperties;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingAvailabilityTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingProperties properties;
+    private BookingAvailability bookingAvailability;
+
+    private final AtomicLong ids = new AtomicLong(10);
+    private final UnaryOperator<Booking> save = booking -> {
+        booking.setId(ids.incrementAndGet());
+        return booking;
+    };
+
+    private Item item;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BookingProperties();
+        bookingAvailability = new BookingAvailability(bookingRepository, properties);
+        item = Item.builder().id(1L).build();
+        start = LocalDateTime.now().plusDays(1).withNano(0);
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndTimeAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of(booking(1L, 0, 2, BookingStatus.APPROVED)));
+    }
+
+    @Test
+    void reserve_whenPeriodIsFree_thenBookingSaved() {
+        Booking result = bookingAvailability.reserve(booking(null, 2, 4, BookingStatus.WAITING), save);
+
+        assertThat(result.getId()).isEqualTo(11L);
+    }
+
+    @Test
+    void reserve_whenPeriodOverlapsStoredBooking_thenConflictExceptionThrown() {
+        assertThrows(ConflictException.class,
+                () -> bookingAvailability.reserve(booking(null, 1, 3, BookingStatus.WAITING), save));
+        assertThat(ids.get()).isEqualTo(10L);
+    }
+
+    @Test
+    void reserve_whenItemEvictedAfterBookingsDeleted_thenPeriodReloaded() {
+        bookingAvailability.reserve(booking(null, 2, 4, BookingStatus.WAITING), save);
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndTimeAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of());
+
+        bookingAvailability.evict(List.of(1L));
+        Booking result = bookingAvailability.reserve(booking(null, 1, 3, BookingStatus.WAITING), save);
+
+        assertThat(result.getId()).isEqualTo(12L);
+    }
+
+    @Test
+    void dropIdle_whenItemNotBookedForIdleTimeout_thenPeriodsReloaded() {
+        bookingAvailability.reserve(booking(null, 2, 4, BookingStatus.WAITING), save);
+        properties.getAvailability().setIdleTimeout(Duration.ZERO);
+
+        bookingAvailability.dropIdle();
+        bookingAvailability.reserve(booking(null, 4, 6, BookingStatus.WAITING), save);
+
+        verify(bookingRepository, times(2))
+                .findAllByItemIdAndStatusInAndEndTimeAfter(anyLong(), anyCollection(), any());
+    }
+
+    @Test
+    void dropIdle_whenBookingOfItemBeingSaved_thenPeriodsKept() {
+        bookingAvailability.reserveAsync(booking(null, 2, 4, BookingStatus.WAITING), booking -> new CompletableFuture<>());
+        properties.getAvailability().setIdleTimeout(Duration.ZERO);
+
+        bookingAvailability.dropIdle();
+
+        assertThrows(ConflictException.class,
+                () -> bookingAvailability.reserve(booking(null, 3, 5, BookingStatus.WAITING), save));
+        verify(bookingRepository, times(1))
+                .findAllByItemIdAndStatusInAndEndTimeAfter(anyLong(), anyCollection(), any());
+    }
+
+    @Test
+    void reserve_whenBookingEnded_thenPeriodIsFree() {
+        start = LocalDateTime.now().minusHours(3);
+        bookingAvailability.reserve(booking(null, 0, 2, BookingStatus.APPROVED), save);
+
+        Booking result = bookingAvailability.reserve(booking(null, 1, 5, BookingStatus.WAITING), save);
+
+        assertThat(result.getId()).isEqualTo(12L);
+    }
+
+    @Test
+    void reserve_whenPeriodOverlapsNewBooking_thenConflictExceptionThrown() {
+        bookingAvailability.reserve(booking(null, 2, 4, BookingStatus.WAITING), save);
+
+        assertThrows(ConflictException.class,
+                () -> bookingAvailability.reserve(booking(null, 3, 5, BookingStatus.WAITING), save));
+        verify(bookingRepository, times(1))
+                .findAllByItemIdAndStatusInAndEndTimeAfter(anyLong(), anyCollection(), any());
+    }
+
+    @Test
+    void statusChanged_whenBookingRejected_thenPeriodIsFree() {
+        Booking booking = bookingAvailability.reserve(booking(null, 2, 4, BookingStatus.WAITING), save);
+        booking.setStatus(BookingStatus.REJECTED);
+
+        bookingAvailability.statusChanged(booking);
+
+        assertThat(bookingAvailability.reserve(booking(null, 3, 5, BookingStatus.WAITING), save).getId())
+                .isEqualTo(12L);
+    }
+
+    @Test
+    void statusChanged_whenBookingApproved_thenPeriodStaysBooked() {
+        Booking booking = bookingAvailability.reserve(booking(null, 2, 4, BookingStatus.WAITING), save);
+        booking.setStatus(BookingStatus.APPROVED);
+
+        bookingAvailability.statusChanged(booking);
+
+        assertThrows(ConflictException.class,
+                () -> bookingAvailability.reserve(booking(null, 3, 5, BookingStatus.WAITING), save));
+    }
+
+    @Test
+    void reserveAsync_whenPeriodOverlapsBookingBeingSaved_thenConflictExceptionThrown() {
+        CompletableFuture<Booking> saving = new CompletableFuture<>();
+        CompletableFuture<Booking> result = bookingAvailability.reserveAsync(
+                booking(null, 2, 4, BookingStatus.WAITING), booking -> saving);
+
+        assertThrows(ConflictException.class, () -> bookingAvailability.reserveAsync(
+                booking(null, 3, 5, BookingStatus.WAITING), booking -> new CompletableFuture<>()));
+        saving.complete(save.apply(booking(null, 2, 4, BookingStatus.WAITING)));
+        assertThat(result.join().getId()).isEqualTo(11L);
+        assertThrows(ConflictException.class,
+                () -> bookingAvailability.reserve(booking(null, 3, 5, BookingStatus.WAITING), save));
+    }
+
+    @Test
+    void reserveAsync_whenSaveFails_thenPeriodIsFree() {
+        CompletableFuture<Booking> result = bookingAvailability.reserveAsync(booking(null, 2, 4, BookingStatus.WAITING),
+                booking -> CompletableFuture.failedFuture(new IllegalStateException()));
+
+        assertThat(result).isCompletedExceptionally();
+        assertThat(bookingAvailability.reserve(booking(null, 3, 5, BookingStatus.WAITING), save).getId())
+                .isEqualTo(11L);
+    }
+
+    private Booking booking(Long id, int fromHour, int toHour, BookingStatus status) {
+        return Booking.builder()
+                .id(id)
+                .startTime(start.plusHours(fromHour))
+                .endTime(start.plusHours(toHour))
+                .item(item)
+                .status(status)
+                .build();
+    }
+}
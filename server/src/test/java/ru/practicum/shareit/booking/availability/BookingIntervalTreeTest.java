@@ -0,0 +1,99 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookingIntervalTreeTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private BookingIntervalTree tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = new BookingIntervalTree();
+        tree.add(1L, hour(10), hour(12));
+        tree.add(2L, hour(14), hour(16));
+    }
+
+    @Test
+    void overlaps_whenPeriodIntersectsBooking_thenReturnTrue() {
+        assertThat(tree.overlaps(hour(11), hour(13))).isTrue();
+        assertThat(tree.overlaps(hour(9), hour(17))).isTrue();
+        assertThat(tree.overlaps(hour(15), hour(15).plusMinutes(1))).isTrue();
+    }
+
+    @Test
+    void overlaps_whenPeriodTouchesOrFitsBetweenBookings_thenReturnFalse() {
+        assertThat(tree.overlaps(hour(12), hour(14))).isFalse();
+        assertThat(tree.overlaps(hour(8), hour(10))).isFalse();
+        assertThat(tree.overlaps(hour(16), hour(20))).isFalse();
+    }
+
+    @Test
+    void overlaps_whenLongBookingIsHiddenBehindShortOne_thenReturnTrue() {
+        tree.add(3L, hour(1), hour(30));
+        tree.add(4L, hour(2), hour(3));
+
+        assertThat(tree.overlaps(hour(20), hour(21))).isTrue();
+    }
+
+    @Test
+    void remove_whenBookingRemoved_thenPeriodIsFree() {
+        tree.remove(1L, hour(10));
+
+        assertThat(tree.overlaps(hour(11), hour(13))).isFalse();
+        assertThat(tree.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removeEndedBefore_whenBookingsEnded_thenOnlyTheyRemoved() {
+        tree.add(3L, hour(1), hour(30));
+        tree.add(4L, hour(2), hour(3));
+
+        tree.removeEndedBefore(hour(12));
+
+        assertThat(tree.size()).isEqualTo(2);
+        assertThat(tree.overlaps(hour(2), hour(3))).isTrue();
+        assertThat(tree.overlaps(hour(31), hour(32))).isFalse();
+        tree.remove(3L, hour(1));
+        assertThat(tree.overlaps(hour(10), hour(12))).isFalse();
+        assertThat(tree.overlaps(hour(15), hour(16))).isTrue();
+    }
+
+    @Test
+    void overlaps_whenManyBookingsAddedAndRemoved_thenMatchesLinearScan() {
+        Random random = new Random(42);
+        List<long[]> periods = new ArrayList<>();
+        tree = new BookingIntervalTree();
+        for (long id = 0; id < 500; id++) {
+            long start = random.nextInt(10_000);
+            long[] period = {id, start, start + 1 + random.nextInt(50)};
+            periods.add(period);
+            tree.add(id, hour(period[1]), hour(period[2]));
+        }
+        for (int i = 0; i < 250; i++) {
+            long[] period = periods.remove(random.nextInt(periods.size()));
+            tree.remove(period[0], hour(period[1]));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(20);
+            boolean expected = periods.stream().anyMatch(period -> period[1] < end && start < period[2]);
+            assertThat(tree.overlaps(hour(start), hour(end))).isEqualTo(expected);
+        }
+        assertThat(tree.size()).isEqualTo(periods.size());
+    }
+
+    private static LocalDateTime hour(long hours) {
+        return START.plusHours(hours);
+    }
+}
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.BookingProperties;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemCalendarTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingProperties properties;
+    private ItemCalendar itemCalendar;
+
+    private Item item;
+    private LocalDateTime day;
+
+    @BeforeEach
+    void setUp() {
+        properties = new BookingProperties();
+        itemCalendar = new ItemCalendar(bookingRepository, properties);
+        item = Item.builder().id(1L).build();
+        day = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndTimeAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of(booking(day.plusHours(10), day.plusHours(12).plusMinutes(30))));
+    }
+
+    @Test
+    void getSlots_whenApprovedBookingLoaded_thenItsHoursAreBusy() {
+        List<ItemAvailabilityDto.SlotDto> result = itemCalendar.getSlots(1L, day, day.plusDays(1));
+
+        assertThat(result).containsExactly(
+                slot(day, day.plusHours(10), true),
+                slot(day.plusHours(10), day.plusHours(13), false),
+                slot(day.plusHours(13), day.plusDays(1), true));
+    }
+
+    @Test
+    void getSlots_whenBookingApproved_thenCalendarUpdatedWithoutReload() {
+        itemCalendar.getSlots(1L, day, day.plusDays(1));
+        Booking booking = booking(day.plusHours(13), day.plusHours(15));
+        itemCalendar.statusChanged(booking);
+
+        List<ItemAvailabilityDto.SlotDto> result = itemCalendar.getSlots(1L, day, day.plusDays(1));
+
+        assertThat(result).containsExactly(
+                slot(day, day.plusHours(10), true),
+                slot(day.plusHours(10), day.plusHours(15), false),
+                slot(day.plusHours(15), day.plusDays(1), true));
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusInAndEndTimeAfter(eq(1L), anyCollection(), any());
+    }
+
+    @Test
+    void getSlots_whenMoreCalendarsThanMaxSize_thenLeastRecentlyRequestedReloaded() {
+        properties.getCalendar().setMaxSize(1);
+        itemCalendar.getSlots(1L, day, day.plusDays(1));
+        itemCalendar.getSlots(2L, day, day.plusDays(1));
+
+        List<ItemAvailabilityDto.SlotDto> result = itemCalendar.getSlots(1L, day, day.plusDays(1));
+
+        assertThat(result).hasSize(3);
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusInAndEndTimeAfter(eq(1L), anyCollection(), any());
+    }
+
+    @Test
+    void statusChanged_whenBookingRejected_thenHoursStayFree() {
+        itemCalendar.getSlots(1L, day, day.plusDays(1));
+        Booking booking = booking(day.plusHours(13), day.plusHours(15));
+        booking.setStatus(BookingStatus.REJECTED);
+        itemCalendar.statusChanged(booking);
+
+        List<ItemAvailabilityDto.SlotDto> result = itemCalendar.getSlots(1L, day.plusHours(13), day.plusHours(15));
+
+        assertThat(result).containsExactly(slot(day.plusHours(13), day.plusHours(15), true));
+    }
+
+    @Test
+    void getSlots_whenItemEvictedAfterBookingsDeleted_thenCalendarReloaded() {
+        itemCalendar.getSlots(1L, day, day.plusDays(1));
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndTimeAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of());
+
+        itemCalendar.evict(List.of(1L));
+        List<ItemAvailabilityDto.SlotDto> result = itemCalendar.getSlots(1L, day, day.plusDays(1));
+
+        assertThat(result).containsExactly(slot(day, day.plusDays(1), true));
+    }
+
+    @Test
+    void getSlots_whenPeriodBeyondHorizon_thenLeftOut() {
+        itemCalendar.getSlots(1L, day, day.plusDays(1));
+        itemCalendar.statusChanged(booking(day.plusYears(10), day.plusYears(10).plusDays(1)));
+
+        List<ItemAvailabilityDto.SlotDto> result = itemCalendar.getSlots(1L, day.plusYears(10),
+                day.plusYears(10).plusDays(1));
+
+        assertThat(result).isEmpty();
+    }
+
+    private Booking booking(LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .startTime(start)
+                .endTime(end)
+                .item(item)
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+
+    private static ItemAvailabilityDto.SlotDto slot(LocalDateTime start, LocalDateTime end, boolean free) {
+        return ItemAvailabilityDto.SlotDto.builder()
+                .start(start)
+                .end(end)
+                .free(free)
+                .build();
+    }
+}
@@ -1,24 +1,36 @@
 package ru.practicum.shareit.booking.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.BookingCursor;
 import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.exception.NotAccessException;
 import ru.practicum.shareit.exception.NotFoundException;
 
 import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -27,6 +39,9 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -166,6 +181,79 @@ class BookingControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void update_whenApprovedPeriodOverlaps_thenStatusIsConflict() throws Exception {
+        Long userId = 10L;
+        when(bookingService.update(anyLong(), anyLong(), anyBoolean()))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new ConstraintViolationException("could not execute statement",
+                                new SQLException("conflicting key value violates exclusion constraint", "23P01"),
+                                "bookings_approved_no_overlap")));
+
+        mvc.perform(patch("/bookings/{bookingId}", userId)
+                        .header("X-Sharer-User-Id", 1)
+                        .param("approved", "TRUE")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Booking period overlaps an approved booking of the same item"));
+    }
+
+    @Test
+    void create_whenItemDeletedDuringBatchInsert_thenStatusIsConflict() throws Exception {
+        when(bookingService.create(any(BookingCreateDto.class), anyLong()))
+                .thenThrow(new DataIntegrityViolationException("PreparedStatementCallback",
+                        new SQLException("insert violates foreign key constraint \"bookings_items_fk\"", "23503")));
+
+        mvc.perform(post("/bookings")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(mapper.writeValueAsString(bookingCreateDto))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("insert violates foreign key constraint \"bookings_items_fk\""));
+    }
+
+    @Test
+    void update_whenBookingChangedConcurrently_thenStatusIsConflict() throws Exception {
+        when(bookingService.update(anyLong(), anyLong(), anyBoolean()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, 10L));
+
+        mvc.perform(patch("/bookings/{bookingId}", 10L)
+                        .header("X-Sharer-User-Id", 1)
+                        .param("approved", "TRUE")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void updateBatch_whenRequestIsValid_thenStatusIsOkAndReturnOutcomes() throws Exception {
+        List<BookingApprovalDto> approvals = List.of(new BookingApprovalDto(1L, true), new BookingApprovalDto(2L, false));
+        List<BookingApprovalResultDto> results = List.of(
+                BookingApprovalResultDto.builder().bookingId(1L).status(BookingStatus.APPROVED).build(),
+                BookingApprovalResultDto.builder().bookingId(2L).error("Booking id=2 not found").build());
+        when(bookingService.update(approvals, 1L))
+                .thenReturn(results);
+
+        String result = mvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1)
+                        .content(mapper.writeValueAsString(approvals))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThat(result).isEqualTo(mapper.writeValueAsString(results));
+        verify(bookingService, never()).update(anyLong(), anyLong(), anyBoolean());
+    }
+
     @Test
     void getById_whenRequestIsValid_thenStatusIsOk() throws Exception {
         Long userId = 1L;
@@ -215,7 +303,7 @@ class BookingControllerTest {
     @Test
     void getAllByUserQuery_whenRequestIsValid_thenStatusIsOkAndReturnListOfBookingDto() throws Exception {
         Long userId = 1L;
-        when(bookingService.getAllByUserQuery(anyLong(), any(BookingState.class), any(Pageable.class)))
+        when(bookingService.getAllByUserQuery(anyLong(), any(BookingState.class), any(), any(Pageable.class)))
                 .thenReturn(List.of(bookingDto));
 
         String result = mvc.perform(get("/bookings", userId)
@@ -237,7 +325,7 @@ class BookingControllerTest {
     @Test
     void getAllByUserQuery_whenUserNotFound_thenStatusIsNotFound() throws Exception {
         Long userId = 1L;
-        when(bookingService.getAllByUserQuery(anyLong(), any(BookingState.class), any(Pageable.class)))
+        when(bookingService.getAllByUserQuery(anyLong(), any(BookingState.class), any(), any(Pageable.class)))
                 .thenThrow(NotFoundException.class);
 
         mvc.perform(get("/bookings", userId)
@@ -254,7 +342,7 @@ class BookingControllerTest {
     @Test
     void getAllByUserQuery_whenStateIsNotValid_thenStatusIsBadRequest() throws Exception {
         Long userId = 1L;
-        when(bookingService.getAllByUserQuery(anyLong(), any(BookingState.class), any(Pageable.class)))
+        when(bookingService.getAllByUserQuery(anyLong(), any(BookingState.class), any(), any(Pageable.class)))
                 .thenThrow(IllegalArgumentException.class);
 
         mvc.perform(get("/bookings", userId)
@@ -267,13 +355,57 @@ class BookingControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        verify(bookingService, never()).getAllByUserQuery(anyLong(), any(BookingState.class), any(Pageable.class));
+        verify(bookingService, never()).getAllByUserQuery(anyLong(), any(BookingState.class), any(), any(Pageable.class));
+    }
+
+    @Test
+    void getAllByUserQuery_whenPageIsFull_thenNextCursorReturnedAndAccepted() throws Exception {
+        BookingCursor next = new BookingCursor(bookingDto.getStartTime(), bookingDto.getId());
+        when(bookingService.getAllByUserQuery(anyLong(), any(BookingState.class), any(), any(Pageable.class)))
+                .thenReturn(List.of(bookingDto));
+
+        String cursor = mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("state", "ALL")
+                        .param("from", "0")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader("X-Next-Cursor");
+
+        assertThat(cursor).isEqualTo(next.encode());
+
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("state", "ALL")
+                        .param("from", "0")
+                        .param("size", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        verify(bookingService).getAllByUserQuery(1L, BookingState.ALL, next,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "startTime", "id")));
+    }
+
+    @Test
+    void getAllByUserQuery_whenCursorIsNotValid_thenStatusIsBadRequest() throws Exception {
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("state", "ALL")
+                        .param("from", "0")
+                        .param("size", "10")
+                        .param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingService, never()).getAllByUserQuery(anyLong(), any(BookingState.class), any(), any(Pageable.class));
     }
 
     @Test
     void getAllByOwnerQuery_whenRequestIsValid_thenStatusIsOkAndReturnListOfBookingDto() throws Exception {
         Long userId = 1L;
-        when(bookingService.getAllByOwnerQuery(anyLong(), any(BookingState.class), any(Pageable.class)))
+        when(bookingService.getAllByOwnerQuery(anyLong(), any(BookingState.class), any(), any(Pageable.class)))
                 .thenReturn(List.of(bookingDto));
 
         mvc.perform(get("/bookings/owner", userId)
@@ -290,7 +422,7 @@ class BookingControllerTest {
     @Test
     void getAllByOwnerQuery_whenUserNotFound_thenStatusIsNotFound() throws Exception {
         Long userId = 10L;
-        when(bookingService.getAllByOwnerQuery(anyLong(), any(BookingState.class), any(Pageable.class)))
+        when(bookingService.getAllByOwnerQuery(anyLong(), any(BookingState.class), any(), any(Pageable.class)))
                 .thenThrow(NotFoundException.class);
 
         mvc.perform(get("/bookings/owner", userId)
@@ -307,7 +439,7 @@ class BookingControllerTest {
     @Test
     void getAllByOwnerQuery_whenStateIsNotValid_thenStatusIsBadRequest() throws Exception {
         Long userId = 1L;
-        when(bookingService.getAllByOwnerQuery(anyLong(), any(BookingState.class), any(Pageable.class)))
+        when(bookingService.getAllByOwnerQuery(anyLong(), any(BookingState.class), any(), any(Pageable.class)))
                 .thenThrow(IllegalArgumentException.class);
 
         mvc.perform(get("/bookings/owner", userId)
@@ -320,6 +452,35 @@ class BookingControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        verify(bookingService, never()).getAllByOwnerQuery(anyLong(), any(BookingState.class), any(Pageable.class));
+        verify(bookingService, never()).getAllByOwnerQuery(anyLong(), any(BookingState.class), any(), any(Pageable.class));
+    }
+
+    @Test
+    void getCountsByOwner_whenRequested_thenStatusIsOkAndReturnCounts() throws Exception {
+        when(bookingService.getCountsByOwner(1L))
+                .thenReturn(BookingCountsDto.builder().all(3).future(2).waiting(1).build());
+
+        mvc.perform(get("/bookings/owner/counts")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.all").value(3))
+                .andExpect(jsonPath("$.future").value(2))
+                .andExpect(jsonPath("$.waiting").value(1))
+                .andExpect(jsonPath("$.past").value(0));
+    }
+
+    @Test
+    void streamOwnerEvents_whenLastEventIdGiven_thenStreamStartedFromIt() throws Exception {
+        when(bookingService.streamOwnerEvents(1L, 5L))
+                .thenReturn(new SseEmitter());
+
+        mvc.perform(get("/bookings/owner/stream")
+                        .header("X-Sharer-User-Id", 1)
+                        .header("Last-Event-ID", 5)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(bookingService).streamOwnerEvents(1L, 5L);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,254 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingRole;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class BookingRepositoryTest {
+
+    private static final Pageable PAGEABLE = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "startTime"));
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private Booking past;
+    private Booking current;
+    private Booking future;
+    private Booking rejected;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now().withNano(0);
+        owner = entityManager.persist(User.builder().name("owner").email("owner@email.com").build());
+        booker = entityManager.persist(User.builder().name("booker").email("booker@email.com").build());
+        item = entityManager.persist(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+        past = persist(item, now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED);
+        current = persist(item, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED);
+        future = persist(item, now.plusDays(2), now.plusDays(3), BookingStatus.WAITING);
+        rejected = persist(item, now.plusDays(4), now.plusDays(5), BookingStatus.REJECTED);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findAllByState_whenBookerQueriesEveryState_thenReturnMatchingBookings() {
+        assertThat(ids(booker.getId(), BookingRole.BOOKER, BookingState.ALL))
+                .containsExactly(rejected.getId(), future.getId(), current.getId(), past.getId());
+        assertThat(ids(booker.getId(), BookingRole.BOOKER, BookingState.CURRENT)).containsExactly(current.getId());
+        assertThat(ids(booker.getId(), BookingRole.BOOKER, BookingState.FUTURE))
+                .containsExactly(rejected.getId(), future.getId());
+        assertThat(ids(booker.getId(), BookingRole.BOOKER, BookingState.PAST)).containsExactly(past.getId());
+        assertThat(ids(booker.getId(), BookingRole.BOOKER, BookingState.WAITING)).containsExactly(future.getId());
+        assertThat(ids(booker.getId(), BookingRole.BOOKER, BookingState.REJECTED)).containsExactly(rejected.getId());
+        assertThat(ids(owner.getId(), BookingRole.BOOKER, BookingState.ALL)).isEmpty();
+    }
+
+    @Test
+    void findAllByState_whenOwnerQueriesEveryState_thenReturnMatchingBookings() {
+        assertThat(ids(owner.getId(), BookingRole.OWNER, BookingState.ALL))
+                .containsExactly(rejected.getId(), future.getId(), current.getId(), past.getId());
+        assertThat(ids(owner.getId(), BookingRole.OWNER, BookingState.CURRENT)).containsExactly(current.getId());
+        assertThat(ids(owner.getId(), BookingRole.OWNER, BookingState.PAST)).containsExactly(past.getId());
+        assertThat(ids(owner.getId(), BookingRole.OWNER, BookingState.WAITING)).containsExactly(future.getId());
+        assertThat(ids(booker.getId(), BookingRole.OWNER, BookingState.ALL)).isEmpty();
+    }
+
+    @Test
+    void findAllByState_whenPaged_thenReturnRequestedPageWithoutLoadingEntities() {
+        List<BookingDto> result = bookingRepository.findAllByState(
+                booker.getId(), BookingRole.BOOKER, BookingState.ALL, now, null,
+                PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "startTime")));
+
+        assertThat(result).containsExactly(
+                new BookingDto(current.getId(), current.getStartTime(), current.getEndTime(), BookingStatus.APPROVED,
+                        booker.getId(), item.getId(), item.getName()),
+                new BookingDto(past.getId(), past.getStartTime(), past.getEndTime(), BookingStatus.APPROVED,
+                        booker.getId(), item.getId(), item.getName()));
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount())
+                .isZero();
+    }
+
+    @Test
+    void findAllByState_whenAfterCursor_thenReturnFollowingBookingsIgnoringOffset() {
+        Booking sameStart = persist(entityManager.find(Item.class, past.getItem().getId()),
+                current.getStartTime(), current.getEndTime(), BookingStatus.APPROVED);
+        Pageable pageable = PageRequest.of(3, 2, Sort.by(Sort.Direction.DESC, "startTime", "id"));
+
+        List<BookingDto> result = bookingRepository.findAllByState(booker.getId(), BookingRole.BOOKER,
+                BookingState.ALL, now, new BookingCursor(sameStart.getStartTime(), sameStart.getId()), pageable);
+
+        assertThat(result).extracting(BookingDto::getId).containsExactly(current.getId(), past.getId());
+    }
+
+    @Test
+    void findAllWithItemByIdIn_whenIdsGiven_thenReturnBookingsWithItemOwners() {
+        List<Booking> result = bookingRepository.findAllWithItemByIdIn(Set.of(past.getId(), future.getId(), -1L));
+
+        assertThat(result).extracting(Booking::getId).containsExactlyInAnyOrder(past.getId(), future.getId());
+        assertThat(Hibernate.isInitialized(result.get(0).getItem().getOwner())).isTrue();
+    }
+
+    @Test
+    void findWithItemAndBookerById_whenBookingExists_thenReturnItWithItemOwnerAndBooker() {
+        Booking result = bookingRepository.findWithItemAndBookerById(future.getId()).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(result.getItem().getOwner())).isTrue();
+        assertThat(Hibernate.isInitialized(result.getBooker())).isTrue();
+        assertThat(bookingRepository.findWithItemAndBookerById(-1L)).isEmpty();
+    }
+
+    @Test
+    void countAllByState_whenBookerAndOwnerCount_thenReturnCountsOfEveryState() {
+        Map<BookingState, Long> expected = Map.of(BookingState.ALL, 4L, BookingState.CURRENT, 1L,
+                BookingState.FUTURE, 2L, BookingState.PAST, 1L, BookingState.REJECTED, 1L, BookingState.WAITING, 1L);
+
+        assertThat(bookingRepository.countAllByState(booker.getId(), BookingRole.BOOKER, now)).isEqualTo(expected);
+        assertThat(bookingRepository.countAllByState(owner.getId(), BookingRole.OWNER, now)).isEqualTo(expected);
+        assertThat(bookingRepository.countAllByState(owner.getId(), BookingRole.BOOKER, now))
+                .containsEntry(BookingState.ALL, 0L)
+                .containsEntry(BookingState.WAITING, 0L);
+    }
+
+    @Test
+    void findAllByState_whenBookingArchived_thenReadWithBookingsOfFinishedStates() {
+        ArchivedBooking archived = archive(1000L, now.minusDays(400), now.minusDays(399));
+
+        assertThat(ids(booker.getId(), BookingRole.BOOKER, BookingState.ALL)).containsExactly(
+                rejected.getId(), future.getId(), current.getId(), past.getId(), archived.getId());
+        assertThat(ids(booker.getId(), BookingRole.BOOKER, BookingState.PAST))
+                .containsExactly(past.getId(), archived.getId());
+        assertThat(ids(owner.getId(), BookingRole.OWNER, BookingState.PAST))
+                .containsExactly(past.getId(), archived.getId());
+        assertThat(ids(booker.getId(), BookingRole.BOOKER, BookingState.CURRENT)).containsExactly(current.getId());
+        assertThat(bookingRepository.findAllByState(booker.getId(), BookingRole.BOOKER, BookingState.ALL, now, null,
+                PageRequest.of(2, 2, Sort.by(Sort.Direction.DESC, "startTime"))))
+                .extracting(BookingDto::getId)
+                .containsExactly(archived.getId());
+        assertThat(bookingRepository.findAllByState(booker.getId(), BookingRole.BOOKER, BookingState.ALL, now,
+                new BookingCursor(past.getStartTime(), past.getId()), PAGEABLE))
+                .extracting(BookingDto::getId)
+                .containsExactly(archived.getId());
+    }
+
+    @Test
+    void countAllByState_whenBookingArchived_thenCountedInFinishedStates() {
+        archive(1000L, now.minusDays(400), now.minusDays(399));
+
+        assertThat(bookingRepository.countAllByState(booker.getId(), BookingRole.BOOKER, now))
+                .containsEntry(BookingState.ALL, 5L)
+                .containsEntry(BookingState.PAST, 2L)
+                .containsEntry(BookingState.CURRENT, 1L);
+    }
+
+    @Test
+    void findArchivedById_whenBookingArchived_thenReturnItAsBooking() {
+        ArchivedBooking archived = archive(1000L, now.minusDays(400), now.minusDays(399));
+
+        assertThat(bookingRepository.findArchivedById(archived.getId()))
+                .hasValueSatisfying(booking -> {
+                    assertThat(booking.getStartTime()).isEqualTo(archived.getStartTime());
+                    assertThat(booking.getItem().getId()).isEqualTo(item.getId());
+                    assertThat(booking.getBooker().getId()).isEqualTo(booker.getId());
+                });
+        assertThat(bookingRepository.findArchivedById(past.getId())).isEmpty();
+    }
+
+    @Test
+    void existsFinishedApprovedBooking_whenApprovedBookingEndedOrArchived_thenTrue() {
+        assertThat(bookingRepository.existsFinishedApprovedBooking(booker.getId(), item.getId(), now)).isTrue();
+        assertThat(bookingRepository.existsFinishedApprovedBooking(
+                booker.getId(), item.getId(), now.minusDays(3))).isFalse();
+
+        archive(1000L, now.minusDays(400), now.minusDays(399));
+
+        assertThat(bookingRepository.existsFinishedApprovedBooking(
+                booker.getId(), item.getId(), now.minusDays(3))).isTrue();
+        assertThat(bookingRepository.existsFinishedApprovedBooking(owner.getId(), item.getId(), now)).isFalse();
+    }
+
+    @Test
+    void updateStatusIfWaiting_whenOwnersWaitingBooking_thenStatusAndVersionUpdated() {
+        int updated = bookingRepository.updateStatusIfWaiting(
+                future.getId(), owner.getId(), BookingStatus.APPROVED, BookingStatus.WAITING);
+
+        Booking result = entityManager.find(Booking.class, future.getId());
+        assertThat(updated).isEqualTo(1);
+        assertThat(result.getStatus()).isEqualTo(BookingStatus.APPROVED);
+        assertThat(result.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void updateStatusIfWaiting_whenNotWaitingOrNotOwner_thenNothingUpdated() {
+        assertThat(bookingRepository.updateStatusIfWaiting(
+                future.getId(), booker.getId(), BookingStatus.APPROVED, BookingStatus.WAITING)).isZero();
+        assertThat(bookingRepository.updateStatusIfWaiting(
+                rejected.getId(), owner.getId(), BookingStatus.APPROVED, BookingStatus.WAITING)).isZero();
+        assertThat(entityManager.find(Booking.class, future.getId()).getVersion()).isZero();
+    }
+
+    private List<Long> ids(long userId, BookingRole role, BookingState state) {
+        return bookingRepository.findAllByState(userId, role, state, now, null, PAGEABLE).stream()
+                .map(BookingDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    private ArchivedBooking archive(Long id, LocalDateTime start, LocalDateTime end) {
+        ArchivedBooking archived = entityManager.persistFlushFind(ArchivedBooking.builder()
+                .id(id)
+                .item(entityManager.find(Item.class, item.getId()))
+                .booker(entityManager.find(User.class, booker.getId()))
+                .startTime(start)
+                .endTime(end)
+                .status(BookingStatus.APPROVED)
+                .build());
+        entityManager.clear();
+        return archived;
+    }
+
+    private Booking persist(Item item, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return entityManager.persist(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .startTime(start)
+                .endTime(end)
+                .status(status)
+                .build());
+    }
+}
@@ -5,37 +5,73 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingBatchWriter;
+import ru.practicum.shareit.booking.BookingCountsCache;
+import ru.practicum.shareit.booking.BookingRole;
 import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.availability.BookingAvailability;
+import ru.practicum.shareit.booking.availability.ItemCalendar;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCountsDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaries;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotAccessException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.OutboxEventType;
+import ru.practicum.shareit.outbox.OutboxEvent;
+import ru.practicum.shareit.outbox.OutboxEvents;
+import ru.practicum.shareit.outbox.OutboxPublisher;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static ru.practicum.shareit.booking.BookingState.*;
 import static ru.practicum.shareit.booking.model.BookingStatus.*;
@@ -54,6 +90,36 @@ class BookingServiceImplTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private BookingAvailability bookingAvailability;
+
+    @Mock
+    private ItemCalendar itemCalendar;
+
+    @Mock
+    private ItemBookingSummaries itemBookingSummaries;
+
+    @Mock
+    private BookingCountsCache bookingCountsCache;
+
+    @Mock
+    private BookingBatchWriter bookingBatchWriter;
+
+    @Mock
+    private OutboxEvents outboxEvents;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @Captor
+    private ArgumentCaptor<Predicate<OutboxEvent>> filter;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @Spy
     private BookingMapper bookingMapper = Mappers.getMapper(BookingMapper.class);
 
@@ -126,10 +192,72 @@ class BookingServiceImplTest {
                 .thenReturn(Optional.of(item));
         when(bookingRepository.save(any(Booking.class)))
                 .thenReturn(booking);
+        when(bookingAvailability.reserve(any(Booking.class), any()))
+                .thenAnswer(invocation -> invocation.<UnaryOperator<Booking>>getArgument(1)
+                        .apply(invocation.getArgument(0)));
 
         BookingDto result = bookingService.create(bookingCreateDto, booker.getId());
 
         assertThat(result).isEqualTo(bookingDto);
+        verify(bookingCountsCache).evict(booking);
+        verify(outboxEvents).append(OutboxEventType.BOOKING_CREATED, booking.getId(), 10L, bookingDto);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void create_whenGroupCommitEnabled_thenBookingInsertedByBatchWriter() {
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(booker));
+        when(itemRepository.findById(anyLong()))
+                .thenReturn(Optional.of(item));
+        when(bookingBatchWriter.isEnabled())
+                .thenReturn(true);
+        when(bookingBatchWriter.submit(any(Booking.class), any()))
+                .thenAnswer(invocation -> {
+                    invocation.<Consumer<Booking>>getArgument(1).accept(booking);
+                    return CompletableFuture.completedFuture(booking);
+                });
+        when(bookingAvailability.reserveAsync(any(Booking.class), any()))
+                .thenAnswer(invocation -> invocation.<Function<Booking, CompletableFuture<Booking>>>getArgument(1)
+                        .apply(invocation.getArgument(0)));
+
+        BookingDto result = bookingService.create(bookingCreateDto, booker.getId());
+
+        assertThat(result).isEqualTo(bookingDto);
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(bookingCountsCache).evict(booking);
+        verify(outboxEvents).append(OutboxEventType.BOOKING_CREATED, booking.getId(), 10L, bookingDto);
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void create_whenBatchWriterFails_thenItsExceptionThrown() {
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(booker));
+        when(itemRepository.findById(anyLong()))
+                .thenReturn(Optional.of(item));
+        when(bookingBatchWriter.isEnabled())
+                .thenReturn(true);
+        when(bookingAvailability.reserveAsync(any(Booking.class), any()))
+                .thenReturn(CompletableFuture.failedFuture(new DataIntegrityViolationException("item deleted")));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> bookingService.create(bookingCreateDto, booker.getId()));
+        verifyNoInteractions(bookingCountsCache);
+    }
+
+    @Test
+    void create_whenPeriodIsAlreadyBooked_thenConflictExceptionThrown() {
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(booker));
+        when(itemRepository.findById(anyLong()))
+                .thenReturn(Optional.of(item));
+        when(bookingAvailability.reserve(any(Booking.class), any()))
+                .thenThrow(new ConflictException());
+
+        assertThrows(ConflictException.class,
+                () -> bookingService.create(bookingCreateDto, booker.getId()));
+        verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
@@ -198,39 +326,81 @@ class BookingServiceImplTest {
     @Test
     void update_whenArgsIsValid_thenReturnApprovedBookingDto() {
         bookingDto.setStatus(APPROVED);
+        when(bookingRepository.updateStatusIfWaiting(booking.getId(), booker.getId(), APPROVED, WAITING))
+                .thenReturn(1);
         item.setOwner(booker);
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findWithItemAndBookerById(anyLong()))
                 .thenReturn(Optional.of(booking));
-        when(userRepository.existsById(anyLong()))
-                .thenReturn(TRUE);
-        when(bookingRepository.save((any(Booking.class))))
-                .thenReturn(booking);
 
         BookingDto result = bookingService.update(booking.getId(), booker.getId(), TRUE);
 
         assertThat(result).isEqualTo(bookingDto);
+        verify(itemCalendar).statusChanged(booking);
+        verify(outboxEvents).append(OutboxEventType.BOOKING_STATUS_CHANGED, booking.getId(), 1L, bookingDto);
+        verify(userRepository, never()).existsById(anyLong());
+        verify(bookingRepository, never()).findById(anyLong());
+        verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
     void update_whenArgsIsValid_thenReturnRejectedBookingDto() {
         bookingDto.setStatus(REJECTED);
+        when(bookingRepository.updateStatusIfWaiting(booking.getId(), booker.getId(), REJECTED, WAITING))
+                .thenReturn(1);
         item.setOwner(booker);
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findWithItemAndBookerById(anyLong()))
                 .thenReturn(Optional.of(booking));
-        when(userRepository.existsById(anyLong()))
-                .thenReturn(TRUE);
-        when(bookingRepository.save((any(Booking.class))))
-                .thenReturn(booking);
 
         BookingDto result = bookingService.update(booking.getId(), booker.getId(), FALSE);
 
         assertThat(result).isEqualTo(bookingDto);
+        verify(bookingAvailability).statusChanged(booking);
+    }
+
+    @Test
+    void update_whenInTransaction_thenInMemoryStateChangedOnlyAfterCommit() {
+        when(bookingRepository.updateStatusIfWaiting(booking.getId(), booker.getId(), APPROVED, WAITING))
+                .thenReturn(1);
+        item.setOwner(booker);
+        when(bookingRepository.findWithItemAndBookerById(anyLong()))
+                .thenReturn(Optional.of(booking));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingService.update(booking.getId(), booker.getId(), TRUE);
+
+            verify(outboxEvents).append(eq(OutboxEventType.BOOKING_STATUS_CHANGED), eq(booking.getId()), eq(1L),
+                    any(BookingDto.class));
+            verify(itemCalendar, never()).statusChanged(any(Booking.class));
+            verify(bookingCountsCache, never()).evict(any(Booking.class));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(itemCalendar).statusChanged(booking);
+        verify(bookingAvailability).statusChanged(booking);
+        verify(bookingCountsCache).evict(booking);
+    }
+
+    @Test
+    void update_whenBookingChangedConcurrently_thenOptimisticLockingFailureExceptionThrown() {
+        item.setOwner(booker);
+        when(bookingRepository.findWithItemAndBookerById(anyLong()))
+                .thenReturn(Optional.of(booking));
+        when(bookingRepository.updateStatusIfWaiting(booking.getId(), booker.getId(), APPROVED, WAITING))
+                .thenReturn(0);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> bookingService.update(booking.getId(), booker.getId(), TRUE));
+
+        verify(itemCalendar, never()).statusChanged(any(Booking.class));
     }
 
     @Test
     void update_whenBookingNotFound_thenNotFoundExceptionThrown() {
         Long bookingId = 100L;
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findWithItemAndBookerById(anyLong()))
                 .thenReturn(Optional.empty());
 
         NotFoundException e = assertThrows(NotFoundException.class,
@@ -238,13 +408,13 @@ class BookingServiceImplTest {
 
         assertThat(e.getMessage()).isEqualTo(String.format("Booking id=%d not found", bookingId));
 
-        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(bookingRepository, never()).updateStatusIfWaiting(anyLong(), anyLong(), any(), any());
     }
 
     @Test
     void update_whenUserNotFound_thenNotFoundExceptionThrown() {
         Long userId = 100L;
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findWithItemAndBookerById(anyLong()))
                 .thenReturn(Optional.of(booking));
         when(userRepository.existsById(anyLong()))
                 .thenReturn(FALSE);
@@ -254,12 +424,12 @@ class BookingServiceImplTest {
 
         assertThat(e.getMessage()).isEqualTo(String.format("User id=%d not found", userId));
 
-        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(bookingRepository, never()).updateStatusIfWaiting(anyLong(), anyLong(), any(), any());
     }
 
     @Test
     void update_whenUserIsNotOwner_thenNotAccessExceptionThrown() {
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findWithItemAndBookerById(anyLong()))
                 .thenReturn(Optional.of(booking));
         when(userRepository.existsById(anyLong()))
                 .thenReturn(TRUE);
@@ -269,24 +439,123 @@ class BookingServiceImplTest {
 
         assertThat(e.getMessage()).isEqualTo("Only item's owner can approve booking");
 
-        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(bookingRepository, never()).updateStatusIfWaiting(anyLong(), anyLong(), any(), any());
     }
 
     @Test
     void update_whenStatusIsNotWaiting_thenIllegalArgumentExceptionThrown() {
         booking.setStatus(APPROVED);
         item.setOwner(booker);
-        when(bookingRepository.findById(anyLong()))
+        when(bookingRepository.findWithItemAndBookerById(anyLong()))
                 .thenReturn(Optional.of(booking));
-        when(userRepository.existsById(anyLong()))
-                .thenReturn(TRUE);
 
         IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
                 () -> bookingService.update(booking.getId(), booker.getId(), TRUE));
 
         assertThat(e.getMessage()).isEqualTo(String.format("Status has already changed to %s", booking.getStatus()));
 
+        verify(bookingRepository, never()).updateStatusIfWaiting(anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    void updateBatch_whenSomeApprovalsAreInvalid_thenApplyValidOnesInOneBatch() {
+        item.setOwner(booker);
+        Booking approved = Booking.builder()
+                .id(2L)
+                .startTime(booking.getStartTime())
+                .endTime(booking.getEndTime())
+                .item(item)
+                .booker(booker)
+                .status(APPROVED)
+                .build();
+        Booking foreign = Booking.builder()
+                .id(3L)
+                .item(Item.builder().id(2L).owner(User.builder().id(10L).build()).build())
+                .status(WAITING)
+                .build();
+        when(userRepository.existsById(booker.getId()))
+                .thenReturn(TRUE);
+        when(bookingRepository.findAllWithItemByIdIn(Set.of(1L, 2L, 3L, 4L)))
+                .thenReturn(List.of(booking, approved, foreign));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenReturn(new int[]{1});
+
+        List<BookingApprovalResultDto> result = bookingService.update(List.of(
+                new BookingApprovalDto(1L, false),
+                new BookingApprovalDto(2L, true),
+                new BookingApprovalDto(3L, true),
+                new BookingApprovalDto(4L, true),
+                new BookingApprovalDto(1L, true)), booker.getId());
+
+        assertThat(result).isEqualTo(List.of(
+                BookingApprovalResultDto.builder().bookingId(1L).status(REJECTED).build(),
+                BookingApprovalResultDto.builder().bookingId(2L).error("Status has already changed to APPROVED").build(),
+                BookingApprovalResultDto.builder().bookingId(3L).error("Only item's owner can approve booking").build(),
+                BookingApprovalResultDto.builder().bookingId(4L).error("Booking id=4 not found").build(),
+                BookingApprovalResultDto.builder().bookingId(1L).error("Booking id=1 is repeated").build()));
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> rows) -> rows.size() == 1
+                && Arrays.equals(rows.get(0), new Object[]{"REJECTED", 1L, "WAITING"})));
+        verify(bookingAvailability).statusChanged(argThat(changed -> changed.getStatus() == REJECTED));
         verify(bookingRepository, never()).save(any(Booking.class));
+        assertThat(booking.getStatus()).isEqualTo(WAITING);
+    }
+
+    @Test
+    void updateBatch_whenStatusChangedConcurrently_thenReturnError() {
+        item.setOwner(booker);
+        when(userRepository.existsById(booker.getId()))
+                .thenReturn(TRUE);
+        when(bookingRepository.findAllWithItemByIdIn(Set.of(1L)))
+                .thenReturn(List.of(booking));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenReturn(new int[]{0});
+
+        List<BookingApprovalResultDto> result = bookingService.update(
+                List.of(new BookingApprovalDto(1L, true)), booker.getId());
+
+        assertThat(result).isEqualTo(List.of(BookingApprovalResultDto.builder()
+                .bookingId(1L)
+                .error("Status of booking id=1 has already changed")
+                .build()));
+        verifyNoInteractions(bookingAvailability, itemCalendar);
+    }
+
+    @Test
+    void updateBatch_whenOneApprovalBreaksConstraint_thenOthersAppliedAndItGetsError() {
+        item.setOwner(booker);
+        Booking other = Booking.builder()
+                .id(2L)
+                .startTime(booking.getStartTime())
+                .endTime(booking.getEndTime())
+                .item(item)
+                .booker(booker)
+                .status(WAITING)
+                .build();
+        when(userRepository.existsById(booker.getId()))
+                .thenReturn(TRUE);
+        when(bookingRepository.findAllWithItemByIdIn(Set.of(1L, 2L)))
+                .thenReturn(List.of(booking, other));
+        DataIntegrityViolationException overlap = new DataIntegrityViolationException("PreparedStatementCallback",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01"));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(overlap);
+        when(jdbcTemplate.update(anyString(), eq("APPROVED"), eq(1L), eq("WAITING")))
+                .thenThrow(overlap);
+        when(jdbcTemplate.update(anyString(), eq("APPROVED"), eq(2L), eq("WAITING")))
+                .thenReturn(1);
+
+        List<BookingApprovalResultDto> result = bookingService.update(List.of(
+                new BookingApprovalDto(1L, true),
+                new BookingApprovalDto(2L, true)), booker.getId());
+
+        assertThat(result).isEqualTo(List.of(
+                BookingApprovalResultDto.builder()
+                        .bookingId(1L)
+                        .error("Booking period overlaps an approved booking of the same item")
+                        .build(),
+                BookingApprovalResultDto.builder().bookingId(2L).status(APPROVED).build()));
+        verify(itemCalendar).statusChanged(argThat(changed -> changed.getId() == 2L));
+        verify(itemCalendar, never()).statusChanged(argThat(changed -> changed.getId() == 1L));
     }
 
     @Test
@@ -301,6 +570,20 @@ class BookingServiceImplTest {
         assertThat(result).isEqualTo(bookingDto);
     }
 
+    @Test
+    void getBooking_whenBookingArchived_thenReturnBookingDto() {
+        when(userRepository.existsById(anyLong()))
+                .thenReturn(TRUE);
+        when(bookingRepository.findById(anyLong()))
+                .thenReturn(Optional.empty());
+        when(bookingRepository.findArchivedById(anyLong()))
+                .thenReturn(Optional.of(booking));
+
+        BookingDto result = bookingService.getBooking(booking.getId(), booker.getId());
+
+        assertThat(result).isEqualTo(bookingDto);
+    }
+
     @Test
     void getBooking_whenUserNotFound_thenNotFoundExceptionThrown() {
         Long userId = 100L;
@@ -346,19 +629,16 @@ class BookingServiceImplTest {
         Long userId = 2L;
         int from = 5;
         int size = 10;
+        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime"));
         when(userRepository.existsById(anyLong()))
                 .thenReturn(TRUE);
-        when(bookingRepository.findAllByBookerId(anyLong(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findAllByState(
+                eq(userId), eq(BookingRole.BOOKER), eq(BookingState.ALL), any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(List.of(bookingDto));
 
-        List<BookingDto> result = bookingService.getAllByUserQuery(
-                userId,
-                ALL,
-                PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime")));
+        List<BookingDto> result = bookingService.getAllByUserQuery(userId, BookingState.ALL, null, pageable);
 
         assertThat(result).isEqualTo(List.of(bookingDto));
-
-        verify(bookingRepository).findAllByBookerId(anyLong(), any(Pageable.class));
     }
 
     @Test
@@ -366,21 +646,16 @@ class BookingServiceImplTest {
         Long userId = 2L;
         int from = 5;
         int size = 10;
+        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime"));
         when(userRepository.existsById(anyLong()))
                 .thenReturn(TRUE);
-        when(bookingRepository.findAllByBookerIdAndStartTimeBeforeAndEndTimeAfter(
-                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findAllByState(
+                eq(userId), eq(BookingRole.BOOKER), eq(BookingState.CURRENT), any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(List.of(bookingDto));
 
-        List<BookingDto> result = bookingService.getAllByUserQuery(
-                userId,
-                CURRENT,
-                PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime")));
+        List<BookingDto> result = bookingService.getAllByUserQuery(userId, BookingState.CURRENT, null, pageable);
 
         assertThat(result).isEqualTo(List.of(bookingDto));
-
-        verify(bookingRepository).findAllByBookerIdAndStartTimeBeforeAndEndTimeAfter(
-                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
@@ -388,21 +663,16 @@ class BookingServiceImplTest {
         Long userId = 2L;
         int from = 5;
         int size = 10;
+        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime"));
         when(userRepository.existsById(anyLong()))
                 .thenReturn(TRUE);
-        when(bookingRepository.findAllByBookerIdAndStartTimeAfter(
-                anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findAllByState(
+                eq(userId), eq(BookingRole.BOOKER), eq(BookingState.FUTURE), any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(List.of(bookingDto));
 
-        List<BookingDto> result = bookingService.getAllByUserQuery(
-                userId,
-                FUTURE,
-                PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime")));
+        List<BookingDto> result = bookingService.getAllByUserQuery(userId, BookingState.FUTURE, null, pageable);
 
         assertThat(result).isEqualTo(List.of(bookingDto));
-
-        verify(bookingRepository).findAllByBookerIdAndStartTimeAfter(
-                anyLong(), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
@@ -410,21 +680,16 @@ class BookingServiceImplTest {
         Long userId = 2L;
         int from = 5;
         int size = 10;
+        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime"));
         when(userRepository.existsById(anyLong()))
                 .thenReturn(TRUE);
-        when(bookingRepository.findAllByBookerIdAndEndTimeBefore(
-                anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findAllByState(
+                eq(userId), eq(BookingRole.BOOKER), eq(BookingState.PAST), any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(List.of(bookingDto));
 
-        List<BookingDto> result = bookingService.getAllByUserQuery(
-                userId,
-                PAST,
-                PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime")));
+        List<BookingDto> result = bookingService.getAllByUserQuery(userId, BookingState.PAST, null, pageable);
 
         assertThat(result).isEqualTo(List.of(bookingDto));
-
-        verify(bookingRepository).findAllByBookerIdAndEndTimeBefore(
-                anyLong(), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
@@ -432,21 +697,16 @@ class BookingServiceImplTest {
         Long userId = 2L;
         int from = 5;
         int size = 10;
+        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime"));
         when(userRepository.existsById(anyLong()))
                 .thenReturn(TRUE);
-        when(bookingRepository.findAllByBookerIdAndStatus(
-                anyLong(), any(BookingStatus.class), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findAllByState(
+                eq(userId), eq(BookingRole.BOOKER), eq(BookingState.REJECTED), any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(List.of(bookingDto));
 
-        List<BookingDto> result = bookingService.getAllByUserQuery(
-                userId,
-                BookingState.REJECTED,
-                PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime")));
+        List<BookingDto> result = bookingService.getAllByUserQuery(userId, BookingState.REJECTED, null, pageable);
 
         assertThat(result).isEqualTo(List.of(bookingDto));
-
-        verify(bookingRepository).findAllByBookerIdAndStatus(
-                anyLong(), any(BookingStatus.class), any(Pageable.class));
     }
 
     @Test
@@ -454,21 +714,16 @@ class BookingServiceImplTest {
         Long userId = 2L;
         int from = 5;
         int size = 10;
+        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime"));
         when(userRepository.existsById(anyLong()))
                 .thenReturn(TRUE);
-        when(bookingRepository.findAllByBookerIdAndStatus(
-                anyLong(), any(BookingStatus.class), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findAllByState(
+                eq(userId), eq(BookingRole.BOOKER), eq(BookingState.WAITING), any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(List.of(bookingDto));
 
-        List<BookingDto> result = bookingService.getAllByUserQuery(
-                userId,
-                BookingState.WAITING,
-                PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime")));
+        List<BookingDto> result = bookingService.getAllByUserQuery(userId, BookingState.WAITING, null, pageable);
 
         assertThat(result).isEqualTo(List.of(bookingDto));
-
-        verify(bookingRepository).findAllByBookerIdAndStatus(
-                anyLong(), any(BookingStatus.class), any(Pageable.class));
     }
 
     @Test
@@ -483,62 +738,47 @@ class BookingServiceImplTest {
                 () -> bookingService.getAllByUserQuery(
                         userId,
                         ALL,
+                        null,
                         PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime"))));
 
         assertThat(e.getMessage()).isEqualTo(String.format("User id=%d not found", userId));
 
-        verify(bookingRepository, never()).findAllByBookerId(
-                anyLong(), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByBookerIdAndStartTimeBeforeAndEndTimeAfter(
-                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByBookerIdAndStartTimeAfter(
-                anyLong(), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByBookerIdAndEndTimeBefore(
-                anyLong(), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByBookerIdAndStatus(
-                anyLong(), any(BookingStatus.class), any(Pageable.class));
-    }
-
-@Test
-void getAllByOwnerQuery_whenStateIsAll_thenReturnAllBookings() {
-    Long userId = 2L;
-    int from = 5;
-    int size = 10;
-    when(userRepository.existsById(anyLong()))
-            .thenReturn(TRUE);
-    when(bookingRepository.findAllByItemOwnerId(anyLong(), any(Pageable.class)))
-            .thenReturn(List.of(booking));
-
-    List<BookingDto> result = bookingService.getAllByOwnerQuery(
-            userId,
-            ALL,
-            PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime")));
-
-    assertThat(result).isEqualTo(List.of(bookingDto));
-
-    verify(bookingRepository).findAllByItemOwnerId(anyLong(), any(Pageable.class));
-}
+        verify(bookingRepository, never()).findAllByState(
+                anyLong(), any(BookingRole.class), any(BookingState.class), any(LocalDateTime.class), any(), any(Pageable.class));
+    }
 
     @Test
-    void getAllByOwnerQuery_whenStateIsCurrent_thenReturnCurrentBookings() {
+    void getAllByOwnerQuery_whenStateIsAll_thenReturnAllBookings() {
         Long userId = 2L;
         int from = 5;
         int size = 10;
+        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime"));
         when(userRepository.existsById(anyLong()))
                 .thenReturn(TRUE);
-        when(bookingRepository.findAllByItemOwnerIdAndStartTimeBeforeAndEndTimeAfter(
-                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findAllByState(
+                eq(userId), eq(BookingRole.OWNER), eq(BookingState.ALL), any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(List.of(bookingDto));
 
-        List<BookingDto> result = bookingService.getAllByOwnerQuery(
-                userId,
-                CURRENT,
-                PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime")));
+        List<BookingDto> result = bookingService.getAllByOwnerQuery(userId, BookingState.ALL, null, pageable);
 
         assertThat(result).isEqualTo(List.of(bookingDto));
+    }
 
-        verify(bookingRepository).findAllByItemOwnerIdAndStartTimeBeforeAndEndTimeAfter(
-                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
+    @Test
+    void getAllByOwnerQuery_whenStateIsCurrent_thenReturnCurrentBookings() {
+        Long userId = 2L;
+        int from = 5;
+        int size = 10;
+        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime"));
+        when(userRepository.existsById(anyLong()))
+                .thenReturn(TRUE);
+        when(bookingRepository.findAllByState(
+                eq(userId), eq(BookingRole.OWNER), eq(BookingState.CURRENT), any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(List.of(bookingDto));
+
+        List<BookingDto> result = bookingService.getAllByOwnerQuery(userId, BookingState.CURRENT, null, pageable);
+
+        assertThat(result).isEqualTo(List.of(bookingDto));
     }
 
     @Test
@@ -546,21 +786,16 @@ void getAllByOwnerQuery_whenStateIsAll_thenReturnAllBookings() {
         Long userId = 2L;
         int from = 5;
         int size = 10;
+        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime"));
         when(userRepository.existsById(anyLong()))
                 .thenReturn(TRUE);
-        when(bookingRepository.findAllByItemOwnerIdAndStartTimeAfter(
-                anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findAllByState(
+                eq(userId), eq(BookingRole.OWNER), eq(BookingState.FUTURE), any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(List.of(bookingDto));
 
-        List<BookingDto> result = bookingService.getAllByOwnerQuery(
-                userId,
-                FUTURE,
-                PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime")));
+        List<BookingDto> result = bookingService.getAllByOwnerQuery(userId, BookingState.FUTURE, null, pageable);
 
         assertThat(result).isEqualTo(List.of(bookingDto));
-
-        verify(bookingRepository).findAllByItemOwnerIdAndStartTimeAfter(
-                anyLong(), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
@@ -568,21 +803,16 @@ void getAllByOwnerQuery_whenStateIsAll_thenReturnAllBookings() {
         Long userId = 2L;
         int from = 5;
         int size = 10;
+        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime"));
         when(userRepository.existsById(anyLong()))
                 .thenReturn(TRUE);
-        when(bookingRepository.findAllByItemOwnerIdAndEndTimeBefore(
-                anyLong(), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findAllByState(
+                eq(userId), eq(BookingRole.OWNER), eq(BookingState.PAST), any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(List.of(bookingDto));
 
-        List<BookingDto> result = bookingService.getAllByOwnerQuery(
-                userId,
-                PAST,
-                PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime")));
+        List<BookingDto> result = bookingService.getAllByOwnerQuery(userId, BookingState.PAST, null, pageable);
 
         assertThat(result).isEqualTo(List.of(bookingDto));
-
-        verify(bookingRepository).findAllByItemOwnerIdAndEndTimeBefore(
-                anyLong(), any(LocalDateTime.class), any(Pageable.class));
     }
 
     @Test
@@ -590,21 +820,16 @@ void getAllByOwnerQuery_whenStateIsAll_thenReturnAllBookings() {
         Long userId = 2L;
         int from = 5;
         int size = 10;
+        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime"));
         when(userRepository.existsById(anyLong()))
                 .thenReturn(TRUE);
-        when(bookingRepository.findAllByItemOwnerIdAndStatus(
-                anyLong(), any(BookingStatus.class), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findAllByState(
+                eq(userId), eq(BookingRole.OWNER), eq(BookingState.REJECTED), any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(List.of(bookingDto));
 
-        List<BookingDto> result = bookingService.getAllByOwnerQuery(
-                userId,
-                BookingState.REJECTED,
-                PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime")));
+        List<BookingDto> result = bookingService.getAllByOwnerQuery(userId, BookingState.REJECTED, null, pageable);
 
         assertThat(result).isEqualTo(List.of(bookingDto));
-
-        verify(bookingRepository).findAllByItemOwnerIdAndStatus(
-                anyLong(), any(BookingStatus.class), any(Pageable.class));
     }
 
     @Test
@@ -612,21 +837,16 @@ void getAllByOwnerQuery_whenStateIsAll_thenReturnAllBookings() {
         Long userId = 2L;
         int from = 5;
         int size = 10;
+        Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime"));
         when(userRepository.existsById(anyLong()))
                 .thenReturn(TRUE);
-        when(bookingRepository.findAllByItemOwnerIdAndStatus(
-                anyLong(), any(BookingStatus.class), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findAllByState(
+                eq(userId), eq(BookingRole.OWNER), eq(BookingState.WAITING), any(LocalDateTime.class), isNull(), eq(pageable)))
+                .thenReturn(List.of(bookingDto));
 
-        List<BookingDto> result = bookingService.getAllByOwnerQuery(
-                userId,
-                BookingState.WAITING,
-                PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime")));
+        List<BookingDto> result = bookingService.getAllByOwnerQuery(userId, BookingState.WAITING, null, pageable);
 
         assertThat(result).isEqualTo(List.of(bookingDto));
-
-        verify(bookingRepository).findAllByItemOwnerIdAndStatus(
-                anyLong(), any(BookingStatus.class), any(Pageable.class));
     }
 
     @Test
@@ -641,19 +861,65 @@ void getAllByOwnerQuery_whenStateIsAll_thenReturnAllBookings() {
                 () -> bookingService.getAllByOwnerQuery(
                         userId,
                         ALL,
+                        null,
                         PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "startTime"))));
 
         assertThat(e.getMessage()).isEqualTo(String.format("User id=%d not found", userId));
 
-        verify(bookingRepository, never()).findAllByItemOwnerId(
-                anyLong(), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStartTimeBeforeAndEndTimeAfter(
-                anyLong(), any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStartTimeAfter(
-                anyLong(), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndEndTimeBefore(
-                anyLong(), any(LocalDateTime.class), any(Pageable.class));
-        verify(bookingRepository, never()).findAllByItemOwnerIdAndStatus(
-                anyLong(), any(BookingStatus.class), any(Pageable.class));
-    }
-}
\ No newline at end of file
+        verify(bookingRepository, never()).findAllByState(
+                anyLong(), any(BookingRole.class), any(BookingState.class), any(LocalDateTime.class), any(), any(Pageable.class));
+    }
+
+    @Test
+    void getCountsByOwner_whenNotCached_thenCountWithOneQuery() {
+        when(userRepository.existsById(anyLong()))
+                .thenReturn(TRUE);
+        when(bookingCountsCache.get(eq(1L), eq(BookingRole.OWNER), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<BookingCountsDto>>getArgument(2).get());
+        when(bookingRepository.countAllByState(eq(1L), eq(BookingRole.OWNER), any(LocalDateTime.class)))
+                .thenReturn(Map.of(ALL, 6L, CURRENT, 1L, FUTURE, 2L, PAST, 3L, BookingState.REJECTED, 1L,
+                        BookingState.WAITING, 2L));
+
+        BookingCountsDto result = bookingService.getCountsByOwner(1L);
+
+        assertThat(result).isEqualTo(BookingCountsDto.builder()
+                .all(6).current(1).future(2).past(3).rejected(1).waiting(2)
+                .build());
+    }
+
+    @Test
+    void getCountsByUser_whenUserNotFound_thenNotFoundExceptionThrown() {
+        when(userRepository.existsById(anyLong()))
+                .thenReturn(FALSE);
+
+        assertThrows(NotFoundException.class, () -> bookingService.getCountsByUser(100L));
+
+        verify(bookingCountsCache, never()).get(anyLong(), any(BookingRole.class), any());
+    }
+
+    @Test
+    void streamOwnerEvents_whenUserFound_thenOwnersBookingEventsStreamed() {
+        when(userRepository.existsById(anyLong()))
+                .thenReturn(TRUE);
+
+        bookingService.streamOwnerEvents(1L, 5L);
+
+        verify(outboxPublisher).streamByOwner(eq(1L), eq(5L), filter.capture());
+        assertThat(filter.getValue().test(OutboxEvent.builder().type(OutboxEventType.BOOKING_CREATED).build()))
+                .isTrue();
+        assertThat(filter.getValue().test(OutboxEvent.builder().type(OutboxEventType.BOOKING_STATUS_CHANGED).build()))
+                .isTrue();
+        assertThat(filter.getValue().test(OutboxEvent.builder().type(OutboxEventType.ITEM_UPDATED).build()))
+                .isFalse();
+    }
+
+    @Test
+    void streamOwnerEvents_whenUserNotFound_thenNotFoundExceptionThrown() {
+        when(userRepository.existsById(anyLong()))
+                .thenReturn(FALSE);
+
+        assertThrows(NotFoundException.class, () -> bookingService.streamOwnerEvents(100L, null));
+
+        verify(outboxPublisher, never()).streamByOwner(anyLong(), any(), any());
+    }
+}
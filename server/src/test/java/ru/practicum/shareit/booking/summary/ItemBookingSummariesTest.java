@@ -0,0 +1,159 @@
+package ru.practicum.shareit.booking.summary;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBookingSummariesTest {
+
+    @Mock
+    private ItemBookingSummaryRepository summaryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ItemBookingSummaryProperties properties = new ItemBookingSummaryProperties();
+
+    private ItemBookingSummaries itemBookingSummaries;
+
+    @BeforeEach
+    void setUp() {
+        itemBookingSummaries = new ItemBookingSummaries(summaryRepository, properties, transactionManager);
+    }
+
+    @Test
+    void getAll_whenSummaryIsFresh_thenReturnStoredSummaryWithoutComputing() {
+        ItemBookingSummary stored = summary(1L, LocalDateTime.now().plusDays(1));
+        when(summaryRepository.findAllByItemIdIn(List.of(1L))).thenReturn(List.of(stored));
+
+        Map<Long, ItemBookingSummary> result = itemBookingSummaries.getAll(List.of(1L));
+
+        assertThat(result).containsExactlyEntriesOf(Map.of(1L, stored));
+        verify(summaryRepository, never()).computeAllByItemIdIn(anyList(), any());
+    }
+
+    @Test
+    void getAll_whenSummaryIsMissingOrStale_thenComputeAndSaveIt() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(summaryRepository.findAllByItemIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(summary(1L, LocalDateTime.now().minusMinutes(1))));
+        ItemBookingSummary computed1 = summary(1L, LocalDateTime.now().plusDays(2));
+        ItemBookingSummary computed2 = summary(2L, null);
+        when(summaryRepository.computeAllByItemIdIn(eq(List.of(1L, 2L)), any()))
+                .thenReturn(new HashMap<>(Map.of(1L, computed1, 2L, computed2)));
+        doAnswer(invocation -> {
+            if (invocation.<ItemBookingSummary>getArgument(0) == computed2) {
+                throw new DuplicateKeyException("ITEM_BOOKING_SUMMARIES_PK");
+            }
+            return true;
+        }).when(summaryRepository).save(any(ItemBookingSummary.class), any());
+
+        Map<Long, ItemBookingSummary> result = itemBookingSummaries.getAll(List.of(1L, 2L));
+
+        assertThat(result).containsExactlyInAnyOrderEntriesOf(Map.of(1L, computed1, 2L, computed2));
+        verify(summaryRepository).save(eq(computed1), any());
+    }
+
+    @Test
+    void getAll_whenSummaryInserted_thenComputeAndSaveItAgain() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ItemBookingSummary computed = summary(1L, null);
+        ItemBookingSummary recomputed = summary(1L, LocalDateTime.now().plusDays(1));
+        when(summaryRepository.computeAllByItemIdIn(eq(List.of(1L)), any()))
+                .thenReturn(new HashMap<>(Map.of(1L, computed)), new HashMap<>(Map.of(1L, recomputed)));
+        when(summaryRepository.save(eq(computed), any())).thenReturn(false);
+        when(summaryRepository.save(eq(recomputed), any())).thenReturn(true);
+
+        Map<Long, ItemBookingSummary> result = itemBookingSummaries.getAll(List.of(1L));
+
+        assertThat(result).containsExactlyEntriesOf(Map.of(1L, recomputed));
+        verify(summaryRepository).save(eq(recomputed), any());
+    }
+
+    @Test
+    void getAll_whenWindowMode_thenComputeWithoutReadingOrSavingSummaries() {
+        properties.setMode(ItemBookingSummaryMode.WINDOW);
+        ItemBookingSummary computed = summary(1L, LocalDateTime.now().plusDays(1));
+        when(summaryRepository.computeAllByItemIdIn(eq(List.of(1L)), any())).thenReturn(Map.of(1L, computed));
+
+        Map<Long, ItemBookingSummary> result = itemBookingSummaries.getAll(List.of(1L));
+
+        assertThat(result).containsExactlyEntriesOf(Map.of(1L, computed));
+        verify(summaryRepository, never()).findAllByItemIdIn(anyList());
+        verify(summaryRepository, never()).save(any(ItemBookingSummary.class), any());
+    }
+
+    @Test
+    void statusChanged_whenBookingApproved_thenSummaryMovedForward() {
+        Booking booking = booking(BookingStatus.APPROVED);
+
+        itemBookingSummaries.statusChanged(booking);
+
+        verify(summaryRepository).approve(eq(1L), eq(5L), eq(2L), eq(booking.getStartTime()), any());
+    }
+
+    @Test
+    void statusChanged_whenBookingRejected_thenSummaryUntouched() {
+        itemBookingSummaries.statusChanged(booking(BookingStatus.REJECTED));
+
+        verify(summaryRepository, never()).approve(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void roll_whenNextBookingsStarted_thenRecomputeTheirSummaries() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(summaryRepository.findAllStaleItemIds(any(), anyInt())).thenReturn(List.of(1L));
+        ItemBookingSummary computed = summary(1L, LocalDateTime.now().plusDays(1));
+        when(summaryRepository.computeAllByItemIdIn(eq(List.of(1L)), any()))
+                .thenReturn(new HashMap<>(Map.of(1L, computed)));
+        when(summaryRepository.save(eq(computed), any())).thenReturn(true);
+
+        itemBookingSummaries.roll();
+
+        verify(summaryRepository).save(eq(computed), any());
+    }
+
+    private static ItemBookingSummary summary(Long itemId, LocalDateTime nextStartTime) {
+        return ItemBookingSummary.builder()
+                .itemId(itemId)
+                .nextBookingId(nextStartTime == null ? null : 10L)
+                .nextStartTime(nextStartTime)
+                .build();
+    }
+
+    private static Booking booking(BookingStatus status) {
+        return Booking.builder()
+                .id(5L)
+                .item(Item.builder().id(1L).build())
+                .booker(User.builder().id(2L).build())
+                .startTime(LocalDateTime.now().plusDays(1))
+                .endTime(LocalDateTime.now().plusDays(2))
+                .status(status)
+                .build();
+    }
+}
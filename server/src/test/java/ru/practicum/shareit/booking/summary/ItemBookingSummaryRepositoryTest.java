@@ -0,0 +1,156 @@
+package ru.practicum.shareit.booking.summary;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(ItemBookingSummaryRepository.class)
+class ItemBookingSummaryRepositoryTest {
+
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User booker;
+    private Item item;
+    private Item idleItem;
+    private Booking last;
+    private Booking next;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now().withNano(0);
+        User owner = entityManager.persist(User.builder().name("owner").email("owner@email.com").build());
+        booker = entityManager.persist(User.builder().name("booker").email("booker@email.com").build());
+        item = entityManager.persist(Item.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+        idleItem = entityManager.persist(Item.builder()
+                .name("idle")
+                .description("description")
+                .available(true)
+                .owner(owner)
+                .build());
+        persist(now.minusDays(5), BookingStatus.APPROVED);
+        last = persist(now.minusDays(1), BookingStatus.APPROVED);
+        persist(now.plusHours(1), BookingStatus.REJECTED);
+        next = persist(now.plusDays(1), BookingStatus.APPROVED);
+        persist(now.plusDays(4), BookingStatus.APPROVED);
+        entityManager.flush();
+    }
+
+    @Test
+    void computeAllByItemIdIn_whenItemsGiven_thenReturnClosestApprovedBookings() {
+        Map<Long, ItemBookingSummary> result =
+                summaryRepository.computeAllByItemIdIn(List.of(item.getId(), idleItem.getId()), now);
+
+        assertThat(result.get(item.getId())).isEqualTo(ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .lastBookingId(last.getId())
+                .lastBookerId(booker.getId())
+                .lastStartTime(last.getStartTime())
+                .nextBookingId(next.getId())
+                .nextBookerId(booker.getId())
+                .nextStartTime(next.getStartTime())
+                .build());
+        assertThat(result.get(idleItem.getId())).isEqualTo(ItemBookingSummary.builder()
+                .itemId(idleItem.getId())
+                .build());
+    }
+
+    @Test
+    void computeAllByItemIdIn_whenBookingsStartTogether_thenPickOneOfThemOnEachSide() {
+        Booking lastTwin = persist(last.getStartTime(), BookingStatus.APPROVED);
+        Booking nextTwin = persist(next.getStartTime(), BookingStatus.APPROVED);
+        persist(now, BookingStatus.APPROVED);
+        entityManager.flush();
+
+        ItemBookingSummary result = summaryRepository.computeAllByItemIdIn(List.of(item.getId()), now)
+                .get(item.getId());
+
+        assertThat(result.getLastBookingId()).isEqualTo(lastTwin.getId());
+        assertThat(result.getNextBookingId()).isEqualTo(next.getId());
+        assertThat(nextTwin.getId()).isGreaterThan(next.getId());
+    }
+
+    @Test
+    void save_whenSavedTwice_thenReturnLatestSummary() {
+        ItemBookingSummary summary = summaryRepository.computeAllByItemIdIn(List.of(item.getId()), now)
+                .get(item.getId());
+        summaryRepository.save(ItemBookingSummary.builder().itemId(item.getId()).build(), now);
+        summaryRepository.save(summary, now);
+
+        assertThat(summaryRepository.findAllByItemIdIn(List.of(item.getId()))).containsExactly(summary);
+    }
+
+    @Test
+    void save_whenCloserBookingApprovedAfterComputing_thenKeepIt() {
+        ItemBookingSummary summary = summaryRepository.computeAllByItemIdIn(List.of(item.getId()), now)
+                .get(item.getId());
+        summaryRepository.save(ItemBookingSummary.builder().itemId(item.getId()).build(), now);
+        Booking closer = persist(now.plusHours(2), BookingStatus.APPROVED);
+        entityManager.flush();
+        summaryRepository.approve(item.getId(), closer.getId(), booker.getId(), closer.getStartTime(), now);
+
+        summaryRepository.save(summary, now);
+
+        ItemBookingSummary result = summaryRepository.findAllByItemIdIn(List.of(item.getId())).get(0);
+        assertThat(result.getNextBookingId()).isEqualTo(closer.getId());
+        assertThat(result.getLastBookingId()).isEqualTo(last.getId());
+    }
+
+    @Test
+    void approve_whenBookingIsCloserToNow_thenItReplacesNextBooking() {
+        summaryRepository.save(summaryRepository.computeAllByItemIdIn(List.of(item.getId()), now)
+                .get(item.getId()), now);
+        Booking closer = persist(now.plusHours(2), BookingStatus.APPROVED);
+        Booking later = persist(now.plusDays(2), BookingStatus.APPROVED);
+        entityManager.flush();
+
+        summaryRepository.approve(item.getId(), later.getId(), booker.getId(), later.getStartTime(), now);
+        summaryRepository.approve(item.getId(), closer.getId(), booker.getId(), closer.getStartTime(), now);
+
+        ItemBookingSummary result = summaryRepository.findAllByItemIdIn(List.of(item.getId())).get(0);
+        assertThat(result.getNextBookingId()).isEqualTo(closer.getId());
+        assertThat(result.getLastBookingId()).isEqualTo(last.getId());
+    }
+
+    @Test
+    void findAllStaleItemIds_whenNextBookingStarted_thenReturnItsItem() {
+        summaryRepository.save(summaryRepository.computeAllByItemIdIn(List.of(item.getId()), now)
+                .get(item.getId()), now);
+
+        assertThat(summaryRepository.findAllStaleItemIds(now, 10)).isEmpty();
+        assertThat(summaryRepository.findAllStaleItemIds(now.plusDays(2), 10)).containsExactly(item.getId());
+    }
+
+    private Booking persist(LocalDateTime start, BookingStatus status) {
+        return entityManager.persist(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .status(status)
+                .build());
+    }
+}
@@ -7,9 +7,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import ru.practicum.shareit.exception.NotAccessException;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -18,17 +21,21 @@ import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.user.model.User;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static java.lang.Boolean.TRUE;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemController.class)
@@ -93,7 +100,7 @@ class ItemControllerTest {
 
     @Test
     void getAllByUser_whenUsersExist_thenStatusOkAndReturnList() throws Exception {
-        when(itemService.getAllByOwner(anyLong(), any(Pageable.class)))
+        when(itemService.getAllByOwner(anyLong(), isNull(), any(Pageable.class)))
                 .thenReturn(List.of(itemDto));
 
         String result = mvc.perform(get("/items")
@@ -108,9 +115,24 @@ class ItemControllerTest {
         assertThat(result).isEqualTo(mapper.writeValueAsString(List.of(itemDto)));
     }
 
+    @Test
+    void getAllByUser_whenAfterGiven_thenFirstPageAfterCursorRequested() throws Exception {
+        when(itemService.getAllByOwner(anyLong(), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(itemDto));
+
+        mvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("from", "5")
+                        .param("size", "10")
+                        .param("after", "3"))
+                .andExpect(status().isOk());
+
+        verify(itemService).getAllByOwner(1L, 3L, PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id")));
+    }
+
     @Test
     void getAllByUser_whenUserNotFound_thenStatusIsNotFound() throws Exception {
-        when(itemService.getAllByOwner(anyLong(), any(Pageable.class)))
+        when(itemService.getAllByOwner(anyLong(), isNull(), any(Pageable.class)))
                 .thenThrow(NotFoundException.class);
 
         mvc.perform(get("/items")
@@ -120,6 +142,47 @@ class ItemControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void streamAllByUser_whenNdjsonAccepted_thenItemsWrittenLineByLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<ItemDto> action = invocation.getArgument(3);
+            action.accept(itemDto);
+            action.accept(itemDto);
+            return null;
+        }).when(itemService).streamAllByOwner(anyLong(), isNull(), any(Pageable.class), any());
+
+        MvcResult mvcResult = mvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("from", "0")
+                        .param("size", "1000"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String itemJson = mapper.writeValueAsString(itemDto);
+        mvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(itemJson + "\n" + itemJson + "\n"));
+        verify(itemService, never()).getAllByOwner(anyLong(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void streamAllByUser_whenUserNotFound_thenStatusIsNotFound() throws Exception {
+        doThrow(NotFoundException.class)
+                .when(itemService).streamAllByOwner(anyLong(), isNull(), any(Pageable.class), any());
+
+        MvcResult mvcResult = mvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 10L)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("from", "0")
+                        .param("size", "10"))
+                .andReturn();
+
+        mvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void getItem_whenArgsIsValid_thenStatusIsOkAndReturnItemDto() throws Exception {
         when(itemService.getItem(anyLong(), anyLong()))
@@ -248,7 +311,7 @@ class ItemControllerTest {
     @Test
     void search_whenArgsIsValid_thenStatusIsOkAndReturnListOfItemDto() throws Exception {
         items.add(itemDto);
-        when(itemService.getSearcherItems(anyString(), any(Pageable.class)))
+        when(itemService.getSearcherItems(anyString(), eq(false), isNull(), any(Pageable.class)))
                 .thenReturn(items);
 
         String result = mvc.perform(get("/items/search")
@@ -263,6 +326,120 @@ class ItemControllerTest {
         assertThat(result).isEqualTo(mapper.writeValueAsString(items));
     }
 
+    @Test
+    void search_whenRanked_thenRankedSearchRequested() throws Exception {
+        items.add(itemDto);
+        when(itemService.getSearcherItems(anyString(), eq(true), isNull(), any(Pageable.class)))
+                .thenReturn(items);
+
+        mvc.perform(get("/items/search")
+                        .param("text", "text")
+                        .param("from", "0")
+                        .param("size", "10")
+                        .param("ranked", "true"))
+                .andExpect(status().isOk());
+
+        verify(itemService).getSearcherItems("text", true, null, PageRequest.of(0, 10));
+    }
+
+    @Test
+    void search_whenAfterGiven_thenFirstPageAfterCursorRequested() throws Exception {
+        when(itemService.getSearcherItems(anyString(), eq(false), anyLong(), any(Pageable.class)))
+                .thenReturn(items);
+
+        mvc.perform(get("/items/search")
+                        .param("text", "text")
+                        .param("from", "25")
+                        .param("size", "10")
+                        .param("after", "7"))
+                .andExpect(status().isOk());
+
+        verify(itemService).getSearcherItems("text", false, 7L, PageRequest.of(0, 10));
+    }
+
+    @Test
+    void streamSearch_whenNdjsonAccepted_thenItemsWrittenLineByLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<ItemDto> action = invocation.getArgument(3);
+            action.accept(itemDto);
+            return null;
+        }).when(itemService).streamSearcherItems(anyString(), anyLong(), any(Pageable.class), any());
+
+        MvcResult mvcResult = mvc.perform(get("/items/search")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("text", "text")
+                        .param("from", "0")
+                        .param("size", "10")
+                        .param("after", "4"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string(mapper.writeValueAsString(itemDto) + "\n"));
+        verify(itemService).streamSearcherItems(eq("text"), eq(4L), eq(PageRequest.of(0, 10)), any());
+    }
+
+    @Test
+    void searchBatch_whenQueriesGiven_thenStatusIsOkAndReturnResultPerQuery() throws Exception {
+        List<ItemSearchRequestDto> requests = List.of(
+                ItemSearchRequestDto.builder().text("name").build(),
+                ItemSearchRequestDto.builder().text("desc").ranked(true).build());
+        when(itemService.getSearcherItems(requests))
+                .thenReturn(List.of(List.of(itemDto), List.of()));
+
+        mvc.perform(post("/items/search/batch")
+                        .content(mapper.writeValueAsString(requests))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(jsonPath("$[0][0].id", is(itemDto.getId()), Long.class))
+                .andExpect(jsonPath("$[1].length()", is(0)));
+    }
+
+    @Test
+    void suggest_whenPrefixGiven_thenStatusIsOkAndReturnNames() throws Exception {
+        when(itemService.getSuggestions("дре", 10))
+                .thenReturn(List.of("Дрель"));
+
+        String result = mvc.perform(get("/items/suggest")
+                        .param("prefix", "дре"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(result).isEqualTo(mapper.writeValueAsString(List.of("Дрель")));
+    }
+
+    @Test
+    void getAvailability_whenRangeIsValid_thenStatusIsOkAndReturnSlots() throws Exception {
+        LocalDate day = LocalDate.of(2030, 1, 1);
+        ItemAvailabilityDto availability = ItemAvailabilityDto.builder()
+                .itemId(1L)
+                .from(day)
+                .to(day)
+                .slots(List.of(ItemAvailabilityDto.SlotDto.builder()
+                        .start(day.atStartOfDay())
+                        .end(day.plusDays(1).atStartOfDay())
+                        .free(true)
+                        .build()))
+                .build();
+        when(itemService.getAvailability(1L, day, day))
+                .thenReturn(availability);
+
+        String result = mvc.perform(get("/items/{itemId}/availability", 1L)
+                        .header("X-Sharer-User-Id", 1)
+                        .param("from", "2030-01-01")
+                        .param("to", "2030-01-01"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(result).isEqualTo(mapper.writeValueAsString(availability));
+    }
+
     @Test
     void createComment_whenCommentIsValid_thenStatusIsOkAndReturnCommentDto() throws Exception {
         CommentDto commentDto = CommentDto.builder()
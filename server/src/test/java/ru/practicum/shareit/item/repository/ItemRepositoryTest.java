@@ -6,11 +6,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.lang.Boolean.TRUE;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -30,11 +33,10 @@ class ItemRepositoryTest {
 
     @BeforeEach
     void setUp() {
-        user = User.builder()
-                .id(1L)
+        user = userRepository.save(User.builder()
                 .name("userName")
                 .email("user@emailc.com")
-                .build();
+                .build());
         item1 = Item.builder()
                 .name("NaMe")
                 .description("description")
@@ -47,7 +49,6 @@ class ItemRepositoryTest {
                 .available(Boolean.FALSE)
                 .owner(user)
                 .build();
-        userRepository.save(user);
         itemRepository.save(item1);
         itemRepository.save(item2);
     }
@@ -66,6 +67,7 @@ class ItemRepositoryTest {
                 "name",
                 "item",
                 TRUE,
+                0L,
                 PageRequest.of(5 / 10, 10));
 
         assertThat(result).isNotNull();
@@ -73,4 +75,44 @@ class ItemRepositoryTest {
         assertThat(result.get(0).getName()).isEqualTo(item1.getName());
         assertThat(result.get(0).getAvailable()).isEqualTo(TRUE);
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllAvailableBySearch_whenAfterLastId_thenReturnEmptyList() {
+
+        List<Item> result = itemRepository.findAllAvailableBySearch(
+                "name",
+                "name",
+                TRUE,
+                item1.getId(),
+                PageRequest.of(0, 10));
+
+        assertThat(result).isEqualTo(List.of());
+    }
+
+    @Test
+    void findAllByOwnerIdAndIdGreaterThan() {
+
+        List<Item> result = itemRepository.findAllByOwnerIdAndIdGreaterThan(
+                user.getId(),
+                item1.getId(),
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id")));
+
+        assertThat(result.size()).isEqualTo(1);
+        assertThat(result.get(0).getName()).isEqualTo(item2.getName());
+    }
+
+    @Test
+    void streamAllByOwnerIdAndIdGreaterThan() {
+
+        List<Item> result;
+        try (Stream<Item> items = itemRepository.streamAllByOwnerIdAndIdGreaterThan(
+                user.getId(),
+                0L,
+                PageRequest.of(0, 1, Sort.by(Sort.Direction.ASC, "id")))) {
+            result = items.collect(Collectors.toList());
+        }
+
+        assertThat(result.size()).isEqualTo(1);
+        assertThat(result.get(0).getName()).isEqualTo(item1.getName());
+    }
+}
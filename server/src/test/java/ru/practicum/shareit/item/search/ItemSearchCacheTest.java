@@ -0,0 +1,129 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.util.List;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemSearchCacheTest {
+
+    private ItemSearchProperties properties;
+    private ItemSearchCache cache;
+    private ItemDto drill;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ItemSearchProperties();
+        cache = new ItemSearchCache(properties);
+        drill = ItemDto.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(TRUE)
+                .build();
+        cache.put("Дрель", false, 0, 0, 10, List.of(drill), cache.evictions());
+    }
+
+    @Test
+    void get_whenSameNormalizedQuery_thenReturnCachedItems() {
+        assertThat(cache.get("дРЕЛЬ", false, 0, 0, 10)).contains(List.of(drill));
+        assertThat(cache.get("дрель", true, 0, 0, 10)).isEmpty();
+        assertThat(cache.get("дрель", false, 0, 10, 10)).isEmpty();
+    }
+
+    @Test
+    void get_whenExpired_thenReturnNull() {
+        properties.getCache().setTtl(Duration.ZERO);
+        cache.put("пила", false, 0, 0, 10, List.of(), cache.evictions());
+
+        assertThat(cache.get("пила", false, 0, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void put_whenMaxSizeExceeded_thenLeastRecentlyUsedEvicted() {
+        properties.getCache().setMaxSize(2);
+        cache.put("пила", false, 0, 0, 10, List.of(), cache.evictions());
+        cache.get("дрель", false, 0, 0, 10);
+        cache.put("молоток", false, 0, 0, 10, List.of(), cache.evictions());
+
+        assertThat(cache.get("дрель", false, 0, 0, 10)).contains(List.of(drill));
+        assertThat(cache.get("пила", false, 0, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void put_whenItemChangedDuringSearch_thenNotCached() {
+        long evictionsBefore = cache.evictions();
+        cache.evict(List.of(5L));
+
+        cache.put("пила", false, 0, 0, 10, List.of(), evictionsBefore);
+
+        assertThat(cache.get("пила", false, 0, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void evict_whenCachedItemChanged_thenEntryDropped() {
+        cache.put("пила", false, 0, 0, 10, List.of(), cache.evictions());
+
+        cache.evict(Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Простая")
+                .available(FALSE)
+                .build());
+
+        assertThat(cache.get("дрель", false, 0, 0, 10)).isEmpty();
+        assertThat(cache.get("пила", false, 0, 0, 10)).contains(List.of());
+    }
+
+    @Test
+    void evict_whenNewItemMatchesText_thenEntryDropped() {
+        cache.put("пила", false, 0, 0, 10, List.of(), cache.evictions());
+
+        cache.evict(Item.builder()
+                .id(2L)
+                .name("Пила")
+                .description("Ручная")
+                .available(TRUE)
+                .build());
+
+        assertThat(cache.get("пила", false, 0, 0, 10)).isEmpty();
+        assertThat(cache.get("дрель", false, 0, 0, 10)).contains(List.of(drill));
+    }
+
+    @Test
+    void evict_whenItemOnFirstPageDeleted_thenLaterPagesOfTextDropped() {
+        ItemDto hammerDrill = ItemDto.builder()
+                .id(2L)
+                .name("Дрель ударная")
+                .description("Мощная дрель")
+                .available(TRUE)
+                .build();
+        cache.put("Дрель", false, 0, 1, 1, List.of(hammerDrill), cache.evictions());
+        cache.put("пила", false, 0, 0, 10, List.of(), cache.evictions());
+
+        cache.evict(Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(TRUE)
+                .build());
+
+        assertThat(cache.get("дрель", false, 0, 0, 10)).isEmpty();
+        assertThat(cache.get("дрель", false, 0, 1, 1)).isEmpty();
+        assertThat(cache.get("пила", false, 0, 0, 10)).contains(List.of());
+    }
+
+    @Test
+    void evict_whenCommentAdded_thenEntriesWithItemDropped() {
+        cache.evict(List.of(1L));
+
+        assertThat(cache.get("дрель", false, 0, 0, 10)).isEmpty();
+    }
+}
@@ -0,0 +1,191 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static java.lang.Boolean.FALSE;
+import static java.lang.Boolean.TRUE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private ItemSearchIndex itemSearchIndex;
+
+    private Item drill;
+    private Item saw;
+
+    @BeforeEach
+    void setUp() {
+        drill = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(TRUE)
+                .build();
+        saw = Item.builder()
+                .id(2L)
+                .name("Пила")
+                .description("Аккумуляторная пила, дрель не нужна")
+                .available(TRUE)
+                .build();
+        itemSearchIndex.index(saw);
+        itemSearchIndex.index(drill);
+    }
+
+    @Test
+    void search_whenTermIsPartOfWord_thenReturnSortedIds() {
+        assertThat(itemSearchIndex.search("ДРЕ", 0, 100)).isEqualTo(List.of(1L, 2L));
+        assertThat(itemSearchIndex.search("умулятор", 0, 100)).isEqualTo(List.of(2L));
+    }
+
+    @Test
+    void search_whenTermShorterThanTrigram_thenLookUpShortGrams() {
+        itemSearchIndex.index(Item.builder().id(3L).name("Ил").description("ил").available(TRUE).build());
+
+        assertThat(itemSearchIndex.search("ил", 0, 100)).isEqualTo(List.of(2L, 3L));
+        assertThat(itemSearchIndex.search("ы", 0, 100)).isEmpty();
+
+        itemSearchIndex.remove(List.of(2L));
+        assertThat(itemSearchIndex.search("и", 0, 100)).isEqualTo(List.of(3L));
+    }
+
+    @Test
+    void search_whenAfterAndLimitGiven_thenReturnOnlyThatPage() {
+        for (long id = 3; id <= 6; id++) {
+            itemSearchIndex.index(Item.builder().id(id).name("Дрель " + id).description("дрели").available(TRUE)
+                    .build());
+        }
+
+        assertThat(itemSearchIndex.search("дрел", 0, 2)).isEqualTo(List.of(1L, 2L));
+        assertThat(itemSearchIndex.search("дрел", 2, 3)).isEqualTo(List.of(3L, 4L, 5L));
+        assertThat(itemSearchIndex.search("дрел дрели", 4, 10)).isEqualTo(List.of(5L, 6L));
+        assertThat(itemSearchIndex.search("дрел", 6, 10)).isEmpty();
+        assertThat(itemSearchIndex.search("дрел", 0, 0)).isEmpty();
+    }
+
+    @Test
+    void search_whenTrigramsMatchButNotSubstring_thenNothingFound() {
+        assertThat(itemSearchIndex.search("дрелдре", 0, 100)).isEmpty();
+        assertThat(itemSearchIndex.search("xyz", 0, 100)).isEmpty();
+    }
+
+    @Test
+    void search_whenSeveralTerms_thenIntersectPostings() {
+        assertThat(itemSearchIndex.search("пила дрель", 0, 100)).isEqualTo(List.of(2L));
+        assertThat(itemSearchIndex.search("простая пила", 0, 100)).isEmpty();
+    }
+
+    @Test
+    void searchRanked_whenNameMatches_thenRankedAboveDescriptionMatch() {
+        assertThat(itemSearchIndex.search("дрель", 0, 100)).isEqualTo(List.of(1L, 2L));
+        assertThat(itemSearchIndex.searchRanked("дрель", 10)).isEqualTo(List.of(1L, 2L));
+    }
+
+    @Test
+    void searchRanked_whenEqualWeight_thenNewerFirstAndLimitApplied() {
+        itemSearchIndex.index(Item.builder()
+                .id(3L)
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(TRUE)
+                .build());
+
+        assertThat(itemSearchIndex.searchRanked("дрель", 2)).isEqualTo(List.of(3L, 1L));
+        assertThat(itemSearchIndex.searchRanked("дрель", 0)).isEmpty();
+    }
+
+    @Test
+    void suggest_whenPrefixMatches_thenReturnDistinctNamesInOrder() {
+        itemSearchIndex.index(Item.builder()
+                .id(3L)
+                .name("дрель")
+                .description("Ещё одна")
+                .available(TRUE)
+                .build());
+        itemSearchIndex.index(Item.builder()
+                .id(4L)
+                .name("Дрель ударная")
+                .description("Мощная")
+                .available(TRUE)
+                .build());
+
+        assertThat(itemSearchIndex.suggest("ДР", 10)).isEqualTo(List.of("Дрель", "Дрель ударная"));
+        assertThat(itemSearchIndex.suggest("др", 1)).isEqualTo(List.of("Дрель"));
+        assertThat(itemSearchIndex.suggest("пилы", 10)).isEmpty();
+    }
+
+    @Test
+    void suggest_whenLastItemWithNameRemoved_thenNameNotSuggested() {
+        itemSearchIndex.index(Item.builder()
+                .id(3L)
+                .name("ДРЕЛЬ")
+                .description("Ещё одна")
+                .available(TRUE)
+                .build());
+
+        itemSearchIndex.remove(List.of(1L));
+        assertThat(itemSearchIndex.suggest("дрель", 10)).isEqualTo(List.of("Дрель"));
+
+        itemSearchIndex.remove(List.of(3L));
+        assertThat(itemSearchIndex.suggest("дрель", 10)).isEmpty();
+    }
+
+    @Test
+    void index_whenItemUpdated_thenOldTermsRemoved() {
+        saw.setDescription("Аккумуляторная");
+        itemSearchIndex.index(saw);
+
+        assertThat(itemSearchIndex.search("дрель", 0, 100)).isEqualTo(List.of(1L));
+    }
+
+    @Test
+    void index_whenItemUnavailable_thenNotSearchable() {
+        drill.setAvailable(FALSE);
+        itemSearchIndex.index(drill);
+
+        assertThat(itemSearchIndex.search("дрель", 0, 100)).isEqualTo(List.of(2L));
+    }
+
+    @Test
+    void remove_whenItemDeleted_thenNotSearchable() {
+        itemSearchIndex.remove(List.of(2L));
+
+        assertThat(itemSearchIndex.search("дрель", 0, 100)).isEqualTo(List.of(1L));
+        assertThat(itemSearchIndex.search("пила", 0, 100)).isEmpty();
+        assertThat(itemSearchIndex.search("муля", 0, 100)).isEmpty();
+    }
+
+    @Test
+    void rebuild_whenItemsStored_thenIndexReplaced() {
+        when(itemRepository.findAll(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(saw)));
+
+        itemSearchIndex.rebuild();
+
+        assertThat(itemSearchIndex.search("дрель", 0, 100)).isEqualTo(List.of(2L));
+    }
+
+    @Test
+    void isSingleTerm() {
+        assertThat(ItemSearchIndex.isSingleTerm("дрель")).isTrue();
+        assertThat(ItemSearchIndex.isSingleTerm("дрель ")).isFalse();
+        assertThat(ItemSearchIndex.isSingleTerm("")).isFalse();
+    }
+}
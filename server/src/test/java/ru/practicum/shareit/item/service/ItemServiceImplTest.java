@@ -9,12 +9,17 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.availability.BookingAvailability;
+import ru.practicum.shareit.booking.availability.ItemCalendar;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.summary.ItemBookingSummaries;
+import ru.practicum.shareit.booking.summary.ItemBookingSummary;
 import ru.practicum.shareit.exception.NotAccessException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.*;
@@ -24,14 +29,27 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.ItemSearchMode;
+import ru.practicum.shareit.item.search.ItemSearchProperties;
+import ru.practicum.shareit.outbox.OutboxEventType;
+import ru.practicum.shareit.outbox.OutboxEvents;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
@@ -57,6 +75,33 @@ class ItemServiceImplTest {
     @Mock
     private CommentRepository commentRepository;
 
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Spy
+    private ItemSearchProperties searchProperties = new ItemSearchProperties();
+
+    @Mock
+    private ItemSearchCache itemSearchCache;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private Executor itemSearchExecutor = new SyncTaskExecutor();
+
+    @Mock
+    private BookingAvailability bookingAvailability;
+
+    @Mock
+    private ItemCalendar itemCalendar;
+
+    @Mock
+    private ItemBookingSummaries itemBookingSummaries;
+
+    @Mock
+    private OutboxEvents outboxEvents;
+
     @Spy
     private ItemMapper itemMapper = Mappers.getMapper(ItemMapper.class);
     @Spy
@@ -129,6 +174,7 @@ class ItemServiceImplTest {
 
         List<ItemDto> actualItemDtoList = itemService.getAllByOwner(
                 owner.getId(),
+                null,
                 PageRequest.of(from / size, size, Sort.by(Sort.Direction.ASC, "id")));
 
         assertThat(actualItemDtoList).isNotNull();
@@ -137,6 +183,74 @@ class ItemServiceImplTest {
         verify(itemRepository).findAllByOwnerId(anyLong(), any(Pageable.class));
     }
 
+    @Test
+    void getAllByOwner_whenItemHasBookingSummary_thenReturnLastAndNextBookings() {
+        items.add(item);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
+        when(userRepository.existsById(anyLong())).thenReturn(TRUE);
+        when(itemRepository.findAllByOwnerId(owner.getId(), pageable)).thenReturn(items);
+        when(itemBookingSummaries.getAll(List.of(item.getId())))
+                .thenReturn(Map.of(item.getId(), ItemBookingSummary.builder()
+                        .itemId(item.getId())
+                        .lastBookingId(3L)
+                        .lastBookerId(2L)
+                        .build()));
+        itemDto.setLastBooking(ItemDto.BookingDto.builder().id(3L).bookerId(2L).build());
+
+        List<ItemDto> actualItemDtoList = itemService.getAllByOwner(owner.getId(), null, pageable);
+
+        assertThat(actualItemDtoList).isEqualTo(List.of(itemDto));
+    }
+
+    @Test
+    void getAllByOwner_whenAfterGiven_thenSeekPastCursor() {
+        items.add(item);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
+        when(userRepository.existsById(anyLong())).thenReturn(TRUE);
+        when(itemRepository.findAllByOwnerIdAndIdGreaterThan(owner.getId(), 5L, pageable))
+                .thenReturn(items);
+
+        List<ItemDto> actualItemDtoList = itemService.getAllByOwner(owner.getId(), 5L, pageable);
+
+        assertThat(actualItemDtoList).isEqualTo(List.of(itemDto));
+        verify(itemRepository, never()).findAllByOwnerId(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void streamAllByOwner_whenManyItems_thenEmitInChunksAndDetach() {
+        List<Item> ownerItems = LongStream.rangeClosed(1, 150)
+                .mapToObj(id -> Item.builder()
+                        .id(id)
+                        .name("name")
+                        .description("description")
+                        .available(TRUE)
+                        .owner(owner)
+                        .build())
+                .collect(Collectors.toList());
+        Pageable pageable = PageRequest.of(0, 1000, Sort.by(Sort.Direction.ASC, "id"));
+        when(userRepository.existsById(anyLong())).thenReturn(TRUE);
+        when(itemRepository.streamAllByOwnerIdAndIdGreaterThan(owner.getId(), 0L, pageable))
+                .thenReturn(ownerItems.stream());
+        List<ItemDto> streamedItems = new ArrayList<>();
+
+        itemService.streamAllByOwner(owner.getId(), null, pageable, streamedItems::add);
+
+        assertThat(streamedItems.size()).isEqualTo(150);
+        verify(itemBookingSummaries, times(2)).getAll(anyList());
+        verify(commentRepository, times(2)).findAllByItemIdIn(anyList(), any(Sort.class));
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void streamAllByOwner_whenOwnerNotFound_thenNotFoundExceptionThrown() {
+        when(userRepository.existsById(anyLong())).thenReturn(FALSE);
+
+        assertThrows(NotFoundException.class,
+                () -> itemService.streamAllByOwner(100L, null, PageRequest.of(0, 10), itemDto -> { }));
+
+        verify(itemRepository, never()).streamAllByOwnerIdAndIdGreaterThan(anyLong(), anyLong(), any(Pageable.class));
+    }
+
     @Test
     void getAllByOwner_whenOwnerNotFound_thenNotFoundExceptionThrown() {
         Long userId = 100L;
@@ -147,6 +261,7 @@ class ItemServiceImplTest {
         NotFoundException e = assertThrows(NotFoundException.class,
                 () -> itemService.getAllByOwner(
                         userId,
+                        null,
                         PageRequest.of(from / size, size, Sort.by(Sort.Direction.ASC, "id"))));
 
         assertThat(e.getMessage()).isEqualTo(String.format("User id=%d not found", userId));
@@ -208,8 +323,13 @@ class ItemServiceImplTest {
         itemDto.setComments(List.of(commentMapper.toCommentDto(comment)));
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.of(item));
-        when(bookingRepository.findAllByItemIdAndStatusIs(anyLong(), any(BookingStatus.class), any(Sort.class)))
-                .thenReturn(List.of(lastBooking));
+        when(itemBookingSummaries.get(item.getId()))
+                .thenReturn(ItemBookingSummary.builder()
+                        .itemId(item.getId())
+                        .lastBookingId(lastBooking.getId())
+                        .lastBookerId(lastBooking.getBooker().getId())
+                        .lastStartTime(lastBooking.getStartTime())
+                        .build());
         when(commentRepository.findAllByItemId(anyLong(), any(Sort.class)))
                 .thenReturn(List.of(comment));
 
@@ -234,6 +354,7 @@ class ItemServiceImplTest {
         assertThat(savedItemDto).isEqualTo(itemDto);
 
         verify(itemRepository).save(any(Item.class));
+        verify(itemSearchIndex).index(item);
     }
 
     @Test
@@ -267,6 +388,9 @@ class ItemServiceImplTest {
         assertThat(updatedItemDto).isEqualTo(itemDto);
 
         verify(itemRepository).save(any(Item.class));
+        verify(itemSearchIndex).index(item);
+        verify(outboxEvents).append(OutboxEventType.ITEM_UPDATED, itemUpdateDto.getId(), owner.getId(), itemDto);
+        verify(outboxEvents).append(OutboxEventType.ITEM_UPDATED, itemUpdateDto.getId(), owner.getId(), itemDto);
     }
 
     @Test
@@ -331,6 +455,11 @@ class ItemServiceImplTest {
         itemService.delete(item.getId(), owner.getId());
 
         verify(itemRepository, times(1)).deleteById(anyLong());
+        verify(itemSearchIndex).remove(List.of(item.getId()));
+        verify(itemSearchCache).evict(item);
+        verify(bookingAvailability).evict(List.of(item.getId()));
+        verify(itemCalendar).evict(List.of(item.getId()));
+        verify(outboxEvents).append(eq(OutboxEventType.ITEM_DELETED), eq(item.getId()), eq(owner.getId()), any());
     }
 
     @Test
@@ -388,6 +517,8 @@ class ItemServiceImplTest {
         int size = 10;
         List<ItemDto> itemDtoList = itemService.getSearcherItems(
                 text,
+                false,
+                null,
                 PageRequest.of(from / size, size));
 
         assertThat(itemDtoList).isNotNull();
@@ -397,25 +528,278 @@ class ItemServiceImplTest {
     @Test
     void getSearcherItems_whenRequestIsValid_thenReturnItemsList() {
         String text = "name";
-        int from = 5;
+        int from = 0;
         int size = 10;
         items.add(item);
         itemDto.setComments(Collections.emptyList());
-        when(itemRepository.findAllAvailableBySearch(
-                anyString(), anyString(), any(Boolean.class), any(Pageable.class)))
+        when(itemSearchIndex.search(text, 0, size))
+                .thenReturn(List.of(item.getId()));
+        when(itemRepository.findAllById(List.of(item.getId())))
                 .thenReturn(items);
         when(commentRepository.findAllByItemIdIn(anyList(), any(Sort.class)))
                 .thenReturn(Collections.emptyList());
 
         List<ItemDto> itemDtoList = itemService.getSearcherItems(
                 text,
+                false,
+                null,
                 PageRequest.of(from / size, size));
 
         assertThat(itemDtoList).isNotNull();
         assertThat(itemDtoList).isEqualTo(List.of(itemDto));
 
-        verify(itemRepository)
-                .findAllAvailableBySearch(anyString(), anyString(), any(Boolean.class), any(Pageable.class));
+        verify(itemRepository, never())
+                .findAllAvailableBySearch(anyString(), anyString(), any(Boolean.class), anyLong(), any(Pageable.class));
+        verify(itemSearchCache).put(text, false, 0, from, size, List.of(itemDto), 0L);
+    }
+
+    @Test
+    void getSearcherItems_whenCached_thenNoLookup() {
+        when(itemSearchCache.get("name", false, 0, 0, 10))
+                .thenReturn(Optional.of(List.of(itemDto)));
+
+        List<ItemDto> itemDtoList = itemService.getSearcherItems("name", false, null, PageRequest.of(0, 10));
+
+        assertThat(itemDtoList).isEqualTo(List.of(itemDto));
+        verify(itemSearchIndex, never()).search(anyString(), anyLong(), anyInt());
+        verify(commentRepository, never()).findAllByItemIdIn(anyList(), any(Sort.class));
+    }
+
+    @Test
+    void getSearcherItems_whenTextHasSeveralTerms_thenReturnOnlySubstringMatches() {
+        String text = "na desc";
+        Item otherItem = Item.builder()
+                .id(2L)
+                .name("desc")
+                .description("name")
+                .available(TRUE)
+                .owner(owner)
+                .build();
+        item.setName("na desc");
+        itemDto.setName("na desc");
+        itemDto.setComments(Collections.emptyList());
+        when(itemSearchIndex.search(text, 0, 100))
+                .thenReturn(List.of(item.getId(), otherItem.getId()));
+        when(itemRepository.findAllById(List.of(item.getId(), otherItem.getId())))
+                .thenReturn(List.of(otherItem, item));
+        when(commentRepository.findAllByItemIdIn(anyList(), any(Sort.class)))
+                .thenReturn(Collections.emptyList());
+
+        List<ItemDto> itemDtoList = itemService.getSearcherItems(text, false, null, PageRequest.of(0, 10));
+
+        assertThat(itemDtoList).isEqualTo(List.of(itemDto));
+    }
+
+    @Test
+    void getSearcherItems_whenTextHasSeveralTermsAndPageFilled_thenLaterCandidatesNotLoaded() {
+        String text = "na desc";
+        item.setName("na desc");
+        itemDto.setName("na desc");
+        itemDto.setComments(Collections.emptyList());
+        List<Long> candidateIds = LongStream.rangeClosed(1, 100).boxed().collect(Collectors.toList());
+        when(itemSearchIndex.search(text, 0, 100))
+                .thenReturn(candidateIds);
+        when(itemRepository.findAllById(candidateIds))
+                .thenReturn(List.of(item));
+        when(commentRepository.findAllByItemIdIn(anyList(), any(Sort.class)))
+                .thenReturn(Collections.emptyList());
+
+        List<ItemDto> itemDtoList = itemService.getSearcherItems(text, false, null, PageRequest.of(0, 1));
+
+        assertThat(itemDtoList).isEqualTo(List.of(itemDto));
+        verify(itemRepository, times(1)).findAllById(anyList());
+        verify(itemSearchIndex, times(1)).search(anyString(), anyLong(), anyInt());
+    }
+
+    @Test
+    void getSearcherItems_whenAfterGiven_thenPageStartsPastCursor() {
+        Item newerItem = Item.builder()
+                .id(2L)
+                .name("name")
+                .description("description")
+                .available(TRUE)
+                .owner(owner)
+                .build();
+        when(itemSearchIndex.search("name", item.getId(), 1))
+                .thenReturn(List.of(newerItem.getId()));
+        when(itemRepository.findAllById(List.of(newerItem.getId())))
+                .thenReturn(List.of(newerItem));
+        when(commentRepository.findAllByItemIdIn(anyList(), any(Sort.class)))
+                .thenReturn(Collections.emptyList());
+
+        List<ItemDto> itemDtoList = itemService.getSearcherItems("name", false, item.getId(), PageRequest.of(0, 1));
+
+        assertThat(itemDtoList.size()).isEqualTo(1);
+        assertThat(itemDtoList.get(0).getId()).isEqualTo(newerItem.getId());
+    }
+
+    @Test
+    void getSearcherItems_whenRankedWithCursor_thenIllegalArgumentExceptionThrown() {
+        assertThrows(IllegalArgumentException.class,
+                () -> itemService.getSearcherItems("name", true, 1L, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void streamSearcherItems_whenSeveralTerms_thenSkipAndLimitMatches() {
+        String text = "na desc";
+        Item otherItem = Item.builder()
+                .id(2L)
+                .name("desc")
+                .description("name")
+                .available(TRUE)
+                .owner(owner)
+                .build();
+        Item thirdItem = Item.builder()
+                .id(3L)
+                .name("na desc")
+                .description("description")
+                .available(TRUE)
+                .owner(owner)
+                .build();
+        item.setName("na desc");
+        when(itemSearchIndex.search(text, 0, 100))
+                .thenReturn(List.of(item.getId(), otherItem.getId(), thirdItem.getId()));
+        when(itemRepository.findAllById(List.of(item.getId(), otherItem.getId(), thirdItem.getId())))
+                .thenReturn(List.of(thirdItem, otherItem, item));
+        when(commentRepository.findAllByItemIdIn(anyList(), any(Sort.class)))
+                .thenReturn(Collections.emptyList());
+        List<ItemDto> streamedItems = new ArrayList<>();
+
+        itemService.streamSearcherItems(text, null, PageRequest.of(1, 1), streamedItems::add);
+
+        assertThat(streamedItems.size()).isEqualTo(1);
+        assertThat(streamedItems.get(0).getId()).isEqualTo(thirdItem.getId());
+    }
+
+    @Test
+    void streamSearcherItems_whenDatabaseMode_thenUseCursorQuery() {
+        searchProperties.setMode(ItemSearchMode.DATABASE);
+        when(itemRepository.streamAllAvailableBySearch("name", "name", TRUE, 5L, PageRequest.of(0, 10)))
+                .thenReturn(Stream.of(item));
+        when(commentRepository.findAllByItemIdIn(anyList(), any(Sort.class)))
+                .thenReturn(Collections.emptyList());
+        List<ItemDto> streamedItems = new ArrayList<>();
+
+        itemService.streamSearcherItems("Name", 5L, PageRequest.of(0, 10), streamedItems::add);
+
+        assertThat(streamedItems.size()).isEqualTo(1);
+        verify(itemSearchIndex, never()).search(anyString(), anyLong(), anyInt());
+    }
+
+    @Test
+    void getSearcherItems_whenBatch_thenResultsInOrderAndCommentsLoadedOnce() {
+        Item otherItem = Item.builder()
+                .id(2L)
+                .name("desc")
+                .description("description")
+                .available(TRUE)
+                .owner(owner)
+                .build();
+        ItemDto cachedItemDto = ItemDto.builder().id(3L).build();
+        when(itemSearchCache.get(anyString(), anyBoolean(), anyLong(), anyLong(), anyInt()))
+                .thenReturn(Optional.empty());
+        when(itemSearchCache.get("cached", false, 0, 0, 10))
+                .thenReturn(Optional.of(List.of(cachedItemDto)));
+        when(itemSearchIndex.search("name", 0, 10))
+                .thenReturn(List.of(item.getId()));
+        when(itemSearchIndex.search("desc", 0, 10))
+                .thenReturn(List.of(otherItem.getId()));
+        when(itemRepository.findAllById(List.of(item.getId())))
+                .thenReturn(List.of(item));
+        when(itemRepository.findAllById(List.of(otherItem.getId())))
+                .thenReturn(List.of(otherItem));
+        when(commentRepository.findAllByItemIdIn(anyList(), any(Sort.class)))
+                .thenReturn(Collections.emptyList());
+
+        List<List<ItemDto>> results = itemService.getSearcherItems(List.of(
+                ItemSearchRequestDto.builder().text("name").build(),
+                ItemSearchRequestDto.builder().text("").build(),
+                ItemSearchRequestDto.builder().text("cached").build(),
+                ItemSearchRequestDto.builder().text("desc").build()));
+
+        assertThat(results.size()).isEqualTo(4);
+        assertThat(results.get(0).get(0).getId()).isEqualTo(item.getId());
+        assertThat(results.get(1)).isEqualTo(Collections.emptyList());
+        assertThat(results.get(2)).isEqualTo(List.of(cachedItemDto));
+        assertThat(results.get(3).get(0).getId()).isEqualTo(otherItem.getId());
+        verify(commentRepository).findAllByItemIdIn(List.of(item.getId(), otherItem.getId()), Sort.by("created").descending());
+        verify(itemSearchCache, times(2))
+                .put(anyString(), anyBoolean(), anyLong(), anyLong(), anyInt(), anyList(), anyLong());
+    }
+
+    @Test
+    void getSearcherItems_whenBatchQueryHasNoPageSize_thenIllegalArgumentExceptionThrown() {
+        assertThrows(IllegalArgumentException.class,
+                () -> itemService.getSearcherItems(List.of(
+                        ItemSearchRequestDto.builder().text("name").size(0).build())));
+
+        verify(itemSearchIndex, never()).search(anyString(), anyLong(), anyInt());
+    }
+
+    @Test
+    void getSearcherItems_whenNothingIndexed_thenReturnEmptyList() {
+        when(itemSearchIndex.search(anyString(), anyLong(), anyInt()))
+                .thenReturn(Collections.emptyList());
+
+        List<ItemDto> itemDtoList = itemService.getSearcherItems("name", false, null, PageRequest.of(0, 10));
+
+        assertThat(itemDtoList).isEqualTo(Collections.emptyList());
+        verify(itemRepository, never()).findAllById(anyList());
+    }
+
+    @Test
+    void getSearcherItems_whenRanked_thenReturnOnlyRequestedPageInRankOrder() {
+        Item newerItem = Item.builder()
+                .id(2L)
+                .name("name")
+                .description("name")
+                .available(TRUE)
+                .owner(owner)
+                .build();
+        when(itemSearchIndex.searchRanked("name", 2))
+                .thenReturn(List.of(newerItem.getId(), item.getId()));
+        when(itemRepository.findAllById(List.of(item.getId())))
+                .thenReturn(List.of(item));
+        when(commentRepository.findAllByItemIdIn(anyList(), any(Sort.class)))
+                .thenReturn(Collections.emptyList());
+
+        List<ItemDto> itemDtoList = itemService.getSearcherItems("name", true, null, PageRequest.of(1, 1));
+
+        assertThat(itemDtoList).isEqualTo(List.of(itemDto));
+        verify(itemSearchIndex, never()).search(anyString(), anyLong(), anyInt());
+    }
+
+    @Test
+    void getSearcherItems_whenDatabaseMode_thenUseLikeQuery() {
+        searchProperties.setMode(ItemSearchMode.DATABASE);
+        items.add(item);
+        when(itemRepository.findAllAvailableBySearch(
+                anyString(), anyString(), any(Boolean.class), anyLong(), any(Pageable.class)))
+                .thenReturn(items);
+        when(commentRepository.findAllByItemIdIn(anyList(), any(Sort.class)))
+                .thenReturn(Collections.emptyList());
+
+        List<ItemDto> itemDtoList = itemService.getSearcherItems("NaMe", false, null, PageRequest.of(0, 10));
+
+        assertThat(itemDtoList).isEqualTo(List.of(itemDto));
+        verify(itemRepository).findAllAvailableBySearch("name", "name", TRUE, 0L, PageRequest.of(0, 10));
+        verify(itemSearchIndex, never()).search(anyString(), anyLong(), anyInt());
+    }
+
+    @Test
+    void getSearcherItems_whenFullTextMode_thenUsePrefixTsQuery() {
+        searchProperties.setMode(ItemSearchMode.DATABASE);
+        searchProperties.setFullText(true);
+        items.add(item);
+        when(itemRepository.findAllAvailableByFullTextSearch(anyString(), anyLong(), any(Pageable.class)))
+                .thenReturn(items);
+        when(commentRepository.findAllByItemIdIn(anyList(), any(Sort.class)))
+                .thenReturn(Collections.emptyList());
+
+        List<ItemDto> itemDtoList = itemService.getSearcherItems("Na, desc", false, null, PageRequest.of(0, 10));
+
+        assertThat(itemDtoList).isEqualTo(List.of(itemDto));
+        verify(itemRepository).findAllAvailableByFullTextSearch("na:* & desc:*", 0L, PageRequest.of(0, 10));
     }
 
     @Test
@@ -440,20 +824,8 @@ class ItemServiceImplTest {
                 .thenReturn(Optional.of(author));
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.of(item));
-        when(bookingRepository
-                .findAllByBookerIdAndItemIdAndStatusIsAndEndTimeBefore(
-                        anyLong(),
-                        anyLong(),
-                        any(BookingStatus.class),
-                        any(LocalDateTime.class)))
-                .thenReturn(List.of(Booking.builder()
-                        .id(1L)
-                        .startTime(LocalDateTime.now().minusHours(2))
-                        .endTime(LocalDateTime.now().minusHours(1))
-                        .item(item)
-                        .booker(author)
-                        .status(BookingStatus.APPROVED)
-                        .build()));
+        when(bookingRepository.existsFinishedApprovedBooking(anyLong(), anyLong(), any(LocalDateTime.class)))
+                .thenReturn(true);
         when(commentRepository.save(any(Comment.class)))
                 .thenReturn(comment);
 
@@ -467,6 +839,7 @@ class ItemServiceImplTest {
         assertThat(savedCommentDto).isEqualTo(commentDto);
 
         verify(commentRepository).save(any(Comment.class));
+        verify(itemSearchCache).evict(List.of(item.getId()));
     }
 
     @Test
@@ -526,12 +899,8 @@ class ItemServiceImplTest {
                 .thenReturn(Optional.of(author));
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.of(item));
-        when(bookingRepository.findAllByBookerIdAndItemIdAndStatusIsAndEndTimeBefore(
-                anyLong(),
-                anyLong(),
-                any(BookingStatus.class),
-                any(LocalDateTime.class)))
-                .thenReturn(Collections.emptyList());
+        when(bookingRepository.existsFinishedApprovedBooking(anyLong(), anyLong(), any(LocalDateTime.class)))
+                .thenReturn(false);
 
         IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
                 () -> itemService.create(
@@ -546,4 +915,41 @@ class ItemServiceImplTest {
 
         verify(commentRepository, never()).save(any(Comment.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAvailability_whenItemExists_thenReturnCalendarSlots() {
+        LocalDate from = LocalDate.now();
+        List<ItemAvailabilityDto.SlotDto> slots = List.of(ItemAvailabilityDto.SlotDto.builder()
+                .start(from.atStartOfDay())
+                .end(from.plusDays(1).atStartOfDay())
+                .free(TRUE)
+                .build());
+        when(itemRepository.existsById(item.getId()))
+                .thenReturn(TRUE);
+        when(itemCalendar.getSlots(item.getId(), from.atStartOfDay(), from.plusDays(1).atStartOfDay()))
+                .thenReturn(slots);
+
+        ItemAvailabilityDto result = itemService.getAvailability(item.getId(), from, from);
+
+        assertThat(result.getSlots()).isEqualTo(slots);
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void getAvailability_whenRangeIsTooLong_thenIllegalArgumentExceptionThrown() {
+        LocalDate from = LocalDate.now();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> itemService.getAvailability(item.getId(), from, from.plusYears(2)));
+        verifyNoInteractions(itemCalendar);
+    }
+
+    @Test
+    void getSuggestions_whenLimitTooLarge_thenClamped() {
+        when(itemSearchIndex.suggest("дре", 100)).thenReturn(List.of("Дрель"));
+
+        List<String> result = itemService.getSuggestions("дре", Integer.MAX_VALUE);
+
+        assertThat(result).isEqualTo(List.of("Дрель"));
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxEventStreamTest {
+
+    @Mock
+    private SseEmitter emitter;
+
+    @Test
+    void publish_whenReplaying_thenLiveEventsSentAfterReplayedOnesAndOnlyOnce() throws IOException {
+        OutboxEventStream stream = new OutboxEventStream(emitter, event -> true, 1, true);
+
+        stream.publish(event(4, 10L));
+        stream.replay(List.of(event(2, 10L), event(3, 10L)));
+        stream.replay(List.of(event(4, 10L)));
+        stream.endReplay();
+        stream.publish(event(5, 10L));
+
+        assertThat(sentIds()).containsExactly("2", "3", "4", "5");
+    }
+
+    @Test
+    void publish_whenFilterRejectsEvent_thenNotSent() throws IOException {
+        OutboxEventStream stream = new OutboxEventStream(emitter, event -> event.getOwnerId() == 10L, 0, false);
+
+        stream.publish(event(1, 20L));
+        stream.publish(event(2, 10L));
+
+        assertThat(sentIds()).containsExactly("2");
+    }
+
+    @Test
+    void publish_whenSendFails_thenStreamClosed() throws IOException {
+        OutboxEventStream stream = new OutboxEventStream(emitter, event -> true, 0, false);
+        IOException failure = new IOException("Broken pipe");
+        doThrow(failure).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        stream.publish(event(1, 10L));
+
+        assertThat(stream.isClosed()).isTrue();
+        verify(emitter).completeWithError(failure);
+    }
+
+    private List<String> sentIds() throws IOException {
+        ArgumentCaptor<SseEmitter.SseEventBuilder> captor = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, atLeast(0)).send(captor.capture());
+        return captor.getAllValues().stream()
+                .map(builder -> builder.build().iterator().next().getData().toString())
+                .map(data -> data.substring(data.indexOf("id:") + 3, data.indexOf('\n')))
+                .collect(Collectors.toList());
+    }
+
+    private static OutboxEvent event(long position, Long ownerId) {
+        return OutboxEvent.builder()
+                .id(position)
+                .type(OutboxEventType.BOOKING_CREATED)
+                .ownerId(ownerId)
+                .payload("{}")
+                .position(position)
+                .build();
+    }
+}
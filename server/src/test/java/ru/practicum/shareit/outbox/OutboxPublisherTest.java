@@ -0,0 +1,145 @@
+package ru.practicum.shareit.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class OutboxPublisherTest {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxRepository outboxRepository;
+    private OutboxProperties properties;
+    private OutboxEvents outboxEvents;
+    private OutboxPublisher outboxPublisher;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = new OutboxRepository(jdbcTemplate);
+        properties = new OutboxProperties();
+        properties.setBatchSize(2);
+        outboxEvents = new OutboxEvents(outboxRepository, new ObjectMapper());
+        outboxPublisher = new OutboxPublisher(outboxRepository, properties, transactionManager, Runnable::run);
+    }
+
+    @Test
+    void poll_whenEventsAppended_thenDeliveredOnceInOrderWithConsecutivePositions() {
+        List<OutboxEvent> received = new ArrayList<>();
+        outboxPublisher.subscribe(received::add);
+        outboxEvents.append(OutboxEventType.BOOKING_CREATED, 1L, 10L, Map.of("id", 1));
+        outboxEvents.append(OutboxEventType.BOOKING_STATUS_CHANGED, 1L, 10L, Map.of("id", 1));
+        outboxEvents.append(OutboxEventType.ITEM_DELETED, 5L, 10L, Map.of("id", 5));
+
+        outboxPublisher.poll();
+        outboxPublisher.poll();
+
+        assertThat(received).extracting(OutboxEvent::getType).containsExactly(OutboxEventType.BOOKING_CREATED,
+                OutboxEventType.BOOKING_STATUS_CHANGED, OutboxEventType.ITEM_DELETED);
+        assertThat(received).extracting(OutboxEvent::getPosition).containsExactly(1L, 2L, 3L);
+        assertThat(received.get(0).getPayload()).isEqualTo("{\"id\":1}");
+        assertThat(outboxRepository.findAllPublishedAfter(1L, 10))
+                .extracting(OutboxEvent::getAggregateId)
+                .containsExactly(1L, 5L);
+    }
+
+    @Test
+    void poll_whenBatchEmpty_thenNoDeliveryScheduled() {
+        AtomicInteger deliveries = new AtomicInteger();
+        outboxPublisher = new OutboxPublisher(outboxRepository, properties, transactionManager,
+                delivery -> deliveries.incrementAndGet());
+
+        outboxPublisher.poll();
+        outboxEvents.append(OutboxEventType.ITEM_UPDATED, 5L, 10L, Map.of("id", 5));
+        outboxEvents.append(OutboxEventType.ITEM_UPDATED, 6L, 10L, Map.of("id", 6));
+        outboxPublisher.poll();
+
+        assertThat(deliveries).hasValue(1);
+    }
+
+    @Test
+    void poll_whenSubscriberFails_thenOtherSubscribersStillReceiveEvents() {
+        List<OutboxEvent> received = new ArrayList<>();
+        outboxPublisher.subscribe(event -> {
+            throw new IllegalStateException();
+        });
+        outboxPublisher.subscribe(received::add);
+        outboxEvents.append(OutboxEventType.ITEM_UPDATED, 5L, 10L, Map.of("id", 5));
+
+        outboxPublisher.poll();
+
+        assertThat(received).hasSize(1);
+    }
+
+    @Test
+    void poll_whenUnsubscribed_thenNoEventsReceived() {
+        List<OutboxEvent> received = new ArrayList<>();
+        Runnable unsubscribe = outboxPublisher.subscribe(received::add);
+        unsubscribe.run();
+        outboxEvents.append(OutboxEventType.ITEM_UPDATED, 5L, 10L, Map.of("id", 5));
+
+        outboxPublisher.poll();
+
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    void poll_whenSubscribedToOwner_thenOnlyOwnersEventsReceived() {
+        List<OutboxEvent> received = new ArrayList<>();
+        Runnable unsubscribe = outboxPublisher.subscribe(10L, received::add);
+        outboxEvents.append(OutboxEventType.BOOKING_CREATED, 1L, 10L, Map.of("id", 1));
+        outboxEvents.append(OutboxEventType.BOOKING_CREATED, 2L, 20L, Map.of("id", 2));
+
+        outboxPublisher.poll();
+        unsubscribe.run();
+        outboxEvents.append(OutboxEventType.BOOKING_STATUS_CHANGED, 1L, 10L, Map.of("id", 1));
+        outboxPublisher.poll();
+
+        assertThat(received).extracting(OutboxEvent::getAggregateId).containsExactly(1L);
+        assertThat(outboxRepository.findAllByOwnerIdPublishedAfter(10L, 0, 10))
+                .extracting(OutboxEvent::getPosition)
+                .containsExactly(1L, 3L);
+    }
+
+    @Test
+    void poll_whenPublishedEventsOutliveRetention_thenDeleted() {
+        properties.setRetention(Duration.ofSeconds(-1));
+        outboxEvents.append(OutboxEventType.ITEM_UPDATED, 5L, 10L, Map.of("id", 5));
+
+        outboxPublisher.poll();
+
+        assertThat(outboxRepository.findAllPublishedAfter(0, 10)).isEmpty();
+        assertThat(outboxRepository.findAllUnpublished(10)).isEmpty();
+    }
+
+    @Test
+    void poll_whenAllPublishedEventsDeleted_thenPositionsContinue() {
+        properties.setRetention(Duration.ofSeconds(-1));
+        outboxEvents.append(OutboxEventType.ITEM_UPDATED, 5L, 10L, Map.of("id", 5));
+        outboxPublisher.poll();
+        properties.setRetention(Duration.ofDays(1));
+        outboxEvents.append(OutboxEventType.ITEM_UPDATED, 6L, 10L, Map.of("id", 6));
+
+        outboxPublisher.poll();
+
+        assertThat(outboxRepository.findAllPublishedAfter(0, 10))
+                .extracting(OutboxEvent::getPosition)
+                .containsExactly(2L);
+    }
+}
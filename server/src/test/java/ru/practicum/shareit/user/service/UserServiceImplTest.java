@@ -9,8 +9,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.availability.BookingAvailability;
+import ru.practicum.shareit.booking.availability.ItemCalendar;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
@@ -18,6 +23,7 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,6 +42,21 @@ class UserServiceImplTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private ItemSearchCache itemSearchCache;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingAvailability bookingAvailability;
+
+    @Mock
+    private ItemCalendar itemCalendar;
+
     @Spy
     private UserMapper userMapper = Mappers.getMapper(UserMapper.class);
 
@@ -149,11 +170,14 @@ class UserServiceImplTest {
     void delete() {
         Long userId = 1L;
         willDoNothing().given(userRepository).deleteById(any());
-        willDoNothing().given(itemRepository).deleteAllByOwnerId(any());
+        when(itemRepository.deleteAllByOwnerId(any())).thenReturn(Collections.emptyList());
+        when(bookingRepository.findAllItemIdsByBookerId(userId)).thenReturn(List.of(7L));
 
         userService.delete(userId);
 
         verify(itemRepository, times(1)).deleteAllByOwnerId(userId);
         verify(userRepository, times(1)).deleteById(userId);
+        verify(bookingAvailability).evict(List.of(7L));
+        verify(itemCalendar).evict(List.of(7L));
     }
 }
\ No newline at end of file